@@ -0,0 +1,111 @@
+package net.pibenchmark.benchmarks.fixture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Writes a large set of WSDL-like stubs, that are used as an input for the plugin in benchmarks.
+ *
+ * Every "TypeN" stub has an ident field, simple fields, a collection of "ItemN" stubs
+ * (having ident fields as well) and an inner class. Besides getters and setters, it contains
+ * static method "sample(seed)" returning populated instance. The plugin ignores it,
+ * because it is not a getter.
+ *
+ * Usage: SyntheticStubs [output directory] [number of types]
+ */
+public class SyntheticStubs {
+
+    private static final String PACKAGE = "net.pibenchmark.benchmarks.synthetic";
+    private static final int STRING_FIELDS = 10;
+    private static final int NUMBER_FIELDS = 3;
+    private static final int ITEMS_PER_SAMPLE = 20;
+
+    public static void main(String[] args) throws IOException {
+        final File packageDir = new File(args[0], PACKAGE.replace('.', File.separatorChar));
+        final int cntTypes = Integer.parseInt(args[1]);
+
+        if (!packageDir.exists() && !packageDir.mkdirs()) {
+            throw new IOException("Can not create directory " + packageDir.getAbsolutePath());
+        }
+
+        for (int i = 0; i < cntTypes; i++) {
+            writeType(packageDir, i);
+            writeItem(packageDir, i);
+        }
+    }
+
+    private static void writeType(File packageDir, int n) throws IOException {
+        final String name = "Type" + n;
+        try (PrintWriter out = new PrintWriter(new File(packageDir, name + ".java"), "UTF-8")) {
+            out.println("package " + PACKAGE + ";");
+            out.println();
+            out.println("public class " + name + " {");
+            out.println();
+            property(out, "String", "id");
+            for (int f = 0; f < STRING_FIELDS; f++) {
+                property(out, "String", "text" + f);
+            }
+            for (int f = 0; f < NUMBER_FIELDS; f++) {
+                property(out, "Integer", "amount" + f);
+            }
+            property(out, "java.util.List<Item" + n + ">", "items");
+            property(out, name + ".Details", "details");
+
+            out.println("    public static class Details {");
+            property(out, "String", "code");
+            property(out, "String", "description");
+            out.println("    }");
+            out.println();
+
+            out.println("    public static " + name + " sample(long seed) {");
+            out.println("        final " + name + " stub = new " + name + "();");
+            out.println("        stub.setId(String.valueOf(seed));");
+            for (int f = 0; f < STRING_FIELDS; f++) {
+                out.println("        stub.setText" + f + "(\"text " + f + " of \" + seed);");
+            }
+            for (int f = 0; f < NUMBER_FIELDS; f++) {
+                out.println("        stub.setAmount" + f + "((int) seed + " + f + ");");
+            }
+            out.println("        stub.setItems(new java.util.ArrayList<Item" + n + ">());");
+            out.println("        for (int i = 0; i < " + ITEMS_PER_SAMPLE + "; i++) {");
+            out.println("            stub.getItems().add(Item" + n + ".sample(seed * " + ITEMS_PER_SAMPLE + " + i));");
+            out.println("        }");
+            out.println("        stub.setDetails(new Details());");
+            out.println("        stub.getDetails().setCode(\"code \" + seed);");
+            out.println("        stub.getDetails().setDescription(\"description \" + seed);");
+            out.println("        return stub;");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private static void writeItem(File packageDir, int n) throws IOException {
+        final String name = "Item" + n;
+        try (PrintWriter out = new PrintWriter(new File(packageDir, name + ".java"), "UTF-8")) {
+            out.println("package " + PACKAGE + ";");
+            out.println();
+            out.println("public class " + name + " {");
+            out.println();
+            property(out, "String", "id");
+            property(out, "String", "name");
+            property(out, "String", "value");
+            out.println("    public static " + name + " sample(long seed) {");
+            out.println("        final " + name + " stub = new " + name + "();");
+            out.println("        stub.setId(String.valueOf(seed));");
+            out.println("        stub.setName(\"name \" + seed);");
+            out.println("        stub.setValue(\"value \" + seed);");
+            out.println("        return stub;");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private static void property(PrintWriter out, String type, String field) {
+        final String capitalized = Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        out.println("    protected " + type + " " + field + ";");
+        out.println("    public " + type + " get" + capitalized + "() { return " + field + "; }");
+        out.println("    public void set" + capitalized + "(" + type + " val) { this." + field + " = val; }");
+        out.println();
+    }
+}
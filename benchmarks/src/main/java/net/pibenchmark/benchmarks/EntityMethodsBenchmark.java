@@ -0,0 +1,75 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.factory.JPAEntitiesFactory;
+import net.pibenchmark.benchmarks.fields.IJpaStub;
+import net.pibenchmark.benchmarks.fields.IdAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hashCode(), equals() and toString() of populated JPA entities. Hibernate calls
+ * the first two for every entity in a persistence context, the last one is used by logs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityMethodsBenchmark {
+
+    @Param({Fixtures.CANDIDATE, Fixtures.SYNTHETIC})
+    public String fixture;
+
+    // two copies of every entity, populated from the same stub
+    private IJpaStub[] entities;
+    private IJpaStub[] copies;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Object[] stubs = Fixtures.stubs(this.fixture, 100);
+        final EntityManager em = InMemoryEntityManager.create();
+        final IdAccumulator accumulator = new IdAccumulator();
+        this.entities = new IJpaStub[stubs.length];
+        this.copies = new IJpaStub[stubs.length];
+        for (int i = 0; i < stubs.length; i++) {
+            final Class<? extends IJpaStub> jpaClass = JPAEntitiesFactory.getInstance()
+                    .createForStub(stubs[i]).get()
+                    .getJPAClass();
+            this.entities[i] = populate(jpaClass.newInstance(), stubs[i], em, accumulator);
+            this.copies[i] = populate(jpaClass.newInstance(), stubs[i], em, accumulator);
+        }
+    }
+
+    @Benchmark
+    public int hashCodeOfEntity() {
+        return this.entities[this.nextIndex()].hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOfEntities() {
+        final int i = this.nextIndex();
+        return this.entities[i].equals(this.copies[i]);
+    }
+
+    @Benchmark
+    public String toStringOfEntity() {
+        return this.entities[this.nextIndex()].toString();
+    }
+
+    private int nextIndex() {
+        if (this.next == this.entities.length) {
+            this.next = 0;
+        }
+        return this.next++;
+    }
+
+    private static IJpaStub populate(IJpaStub jpa, Object stub, EntityManager em, IdAccumulator accumulator) {
+        Fixtures.inject(jpa, em);
+        jpa.populate(stub, accumulator);
+        return jpa;
+    }
+}
@@ -0,0 +1,47 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.factory.JPAEntitiesFactory;
+import net.pibenchmark.benchmarks.fields.IFieldProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the generated factory resolves a field provider by a stub class name
+ * and by a stub instance. Class names are taken round-robin from all the generated stubs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FactoryBenchmark {
+
+    private String[] classNames;
+    private Object[] stubs;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.classNames = JPAEntitiesFactory.getStubNames().toArray(new String[0]);
+        this.stubs = Fixtures.stubs(Fixtures.SYNTHETIC, 100);
+    }
+
+    @Benchmark
+    public Optional<IFieldProvider> createForClassName() {
+        if (this.next >= this.classNames.length) {
+            this.next = 0;
+        }
+        return JPAEntitiesFactory.getInstance().createForClassName(this.classNames[this.next++]);
+    }
+
+    @Benchmark
+    public Optional<IFieldProvider> createForStub() {
+        if (this.next >= this.stubs.length) {
+            this.next = 0;
+        }
+        return JPAEntitiesFactory.getInstance().createForStub(this.stubs[this.next++]);
+    }
+}
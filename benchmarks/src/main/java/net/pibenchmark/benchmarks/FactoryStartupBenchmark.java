@@ -0,0 +1,33 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.factory.JPAEntitiesFactory;
+import net.pibenchmark.benchmarks.fields.IFieldProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the very first call of the generated factory in a fresh JVM: loading and initialization
+ * of the factory classes and linkage of the requested constructor. Every fork is one sample.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class FactoryStartupBenchmark {
+
+    private Object stub;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.stub = Fixtures.stubs(Fixtures.SYNTHETIC, 1)[0];
+    }
+
+    @Benchmark
+    public Optional<IFieldProvider> firstCreateForStub() {
+        return JPAEntitiesFactory.getInstance().createForStub(this.stub);
+    }
+}
@@ -0,0 +1,121 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.stubs.Address;
+import net.pibenchmark.benchmarks.stubs.Application;
+import net.pibenchmark.benchmarks.stubs.Candidate;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * Builds the stubs used as benchmark input and injects the entity manager into generated classes.
+ */
+public final class Fixtures {
+
+    static final String CANDIDATE = "candidate";
+    static final String SYNTHETIC = "synthetic";
+
+    private static final int APPLICATIONS_PER_CANDIDATE = 20;
+
+    // cache "class" <==> "its field of EntityManager type, if any"
+    private static final ClassValue<Optional<Field>> entityManagerFields = new ClassValue<Optional<Field>>() {
+        @Override
+        protected Optional<Field> computeValue(Class<?> clazz) {
+            for (Class<?> current = clazz; null != current; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (EntityManager.class.equals(field.getType())) {
+                        field.setAccessible(true);
+                        return Optional.of(field);
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+    };
+
+    private Fixtures() {}
+
+    /**
+     * Builds a given number of stubs of a given kind
+     *
+     * @param kind - "candidate" (hand-written stubs) or "synthetic" (generated stubs)
+     * @param count - number of stubs
+     */
+    static Object[] stubs(String kind, int count) throws ReflectiveOperationException {
+        return stubs(kind, count, 0);
+    }
+
+    /**
+     * Builds a given number of stubs of a given kind. Stubs of different revisions have the same
+     * IDs, but differ in the value of one simple field
+     *
+     * @param kind - "candidate" (hand-written stubs) or "synthetic" (generated stubs)
+     * @param count - number of stubs
+     * @param revision - revision of the stubs, 0 is the initial one
+     */
+    static Object[] stubs(String kind, int count, int revision) throws ReflectiveOperationException {
+        final Object[] stubs = new Object[count];
+        for (int i = 0; i < count; i++) {
+            if (CANDIDATE.equals(kind)) {
+                stubs[i] = candidate(i);
+                if (revision > 0) {
+                    ((Candidate) stubs[i]).setLastName("Last " + i + " revision " + revision);
+                }
+            }
+            else {
+                // spread the stubs over different synthetic types
+                final Class<?> type = Class.forName("net.pibenchmark.benchmarks.synthetic.Type" + (i % 10));
+                stubs[i] = type.getMethod("sample", long.class).invoke(null, (long) i);
+                if (revision > 0) {
+                    type.getMethod("setText0", String.class).invoke(stubs[i], "revision " + revision);
+                }
+            }
+        }
+        return stubs;
+    }
+
+    private static Candidate candidate(long seed) {
+        final Candidate candidate = new Candidate();
+        candidate.setId(String.valueOf(seed));
+        candidate.setFirstName("First " + seed);
+        candidate.setLastName("Last " + seed);
+        candidate.setAge((int) (20 + seed % 40));
+        candidate.setPhoto(new byte[]{1, 2, 3});
+
+        candidate.setApplications(new ArrayList<>());
+        for (int i = 0; i < APPLICATIONS_PER_CANDIDATE; i++) {
+            final Application application = new Application();
+            application.setId(String.valueOf(seed * APPLICATIONS_PER_CANDIDATE + i));
+            application.setStatus("OPEN");
+            application.setSource("benchmark");
+            candidate.getApplications().add(application);
+        }
+
+        candidate.setAddress(new Address());
+        candidate.getAddress().setCity("City " + seed);
+        candidate.getAddress().setStreet("Street " + seed);
+        candidate.getAddress().setZip("00" + seed);
+
+        candidate.setPhone(new Candidate.Phone());
+        candidate.getPhone().setNumber("+358 " + seed);
+        candidate.getPhone().setKind("mobile");
+        return candidate;
+    }
+
+    /**
+     * Sets the entity manager to the "em" field of a generated class. In the application
+     * this is done by Spring, because generated classes are marked with @Configurable.
+     */
+    static void inject(Object target, EntityManager em) {
+        final Optional<Field> field = entityManagerFields.get(target.getClass());
+        if (field.isPresent()) {
+            try {
+                field.get().set(target, em);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.fields.IJpaStub;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for {@link EntityManager}, that keeps entities in memory. It supports only
+ * the operations used by the generated code: find(), persist(), flush(), clear() and
+ * typed "SELECT ... WHERE ... IN :ids" queries.
+ *
+ * Persisted entities get this entity manager injected, in the same way as Spring does
+ * for classes marked with @Configurable. Entities without ID are not kept,
+ * so the store doesn't grow between benchmark iterations.
+ *
+ * It counts the "IN" queries and flushes, so that tests of the generated code can check
+ * how the existing entities are loaded and how the new ones are written.
+ */
+public final class InMemoryEntityManager implements InvocationHandler {
+
+    // map "JPA class" <==> "map 'ID' <==> 'entity'". Concurrent, because the generated
+    // ingestion runner shares one entity manager between its workers
+    private final Map<Class<?>, Map<Object, Object>> store = new ConcurrentHashMap<>();
+
+    // number of executed "IN" queries and the max number of IDs passed to one of them
+    private int cntQueries;
+    private int maxQueryIds;
+    // number of flushes of the persistence context
+    private int cntFlushes;
+
+    private InMemoryEntityManager() {}
+
+    public static EntityManager create() {
+        return (EntityManager) Proxy.newProxyInstance(InMemoryEntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class},
+                new InMemoryEntityManager());
+    }
+
+    /**
+     * Returns the number of "IN" queries, executed by a given entity manager
+     */
+    static int countOfQueries(EntityManager em) {
+        return of(em).cntQueries;
+    }
+
+    /**
+     * Returns the max number of IDs, passed to one "IN" query of a given entity manager
+     */
+    static int maxIdsPerQuery(EntityManager em) {
+        return of(em).maxQueryIds;
+    }
+
+    /**
+     * Returns the number of flushes of a given entity manager
+     */
+    static int countOfFlushes(EntityManager em) {
+        return of(em).cntFlushes;
+    }
+
+    private static InMemoryEntityManager of(EntityManager em) {
+        return (InMemoryEntityManager) Proxy.getInvocationHandler(em);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "find":
+                return this.table((Class<?>) args[0]).get(args[1]);
+
+            case "persist":
+            case "merge":
+                this.persist((EntityManager) proxy, args[0]);
+                return "merge".equals(method.getName()) ? args[0] : null;
+
+            case "createQuery":
+                if (args.length == 2 && args[1] instanceof Class) {
+                    return this.createQuery((Class<?>) args[1]);
+                }
+                break;
+
+            case "flush":
+                this.cntFlushes++;
+                return null;
+
+            case "clear":
+            case "detach":
+                return null;
+
+            case "isOpen":
+                return true;
+
+            case "hashCode":
+                return System.identityHashCode(proxy);
+
+            case "equals":
+                return proxy == args[0];
+
+            case "toString":
+                return "InMemoryEntityManager" + this.store.keySet();
+        }
+        throw new UnsupportedOperationException("EntityManager." + method.getName() + " is not supported by the stand-in");
+    }
+
+    private void persist(EntityManager em, Object entity) {
+        Fixtures.inject(entity, em);
+        if (entity instanceof IJpaStub && null != ((IJpaStub) entity).getId()) {
+            this.table(entity.getClass()).put(((IJpaStub) entity).getId(), entity);
+        }
+    }
+
+    private Map<Object, Object> table(Class<?> clazz) {
+        return this.store.computeIfAbsent(clazz, (key) -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Query, that returns entities of a given class, whose IDs are passed as a parameter
+     */
+    private TypedQuery<?> createQuery(Class<?> resultClass) {
+        final Map<String, Object> mapParameters = new HashMap<>();
+        return (TypedQuery<?>) Proxy.newProxyInstance(InMemoryEntityManager.class.getClassLoader(),
+                new Class<?>[]{TypedQuery.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setParameter":
+                            mapParameters.put((String) args[0], args[1]);
+                            return proxy;
+
+                        case "getResultList":
+                            final List<Object> result = new ArrayList<>();
+                            this.cntQueries++;
+                            for (Object parameter : mapParameters.values()) {
+                                this.maxQueryIds = Math.max(this.maxQueryIds, ((Collection<?>) parameter).size());
+                                for (Object id : (Collection<?>) parameter) {
+                                    final Object entity = this.table(resultClass).get(id);
+                                    if (null != entity) {
+                                        result.add(entity);
+                                    }
+                                }
+                            }
+                            return result;
+                    }
+                    throw new UnsupportedOperationException("TypedQuery." + method.getName() + " is not supported by the stand-in");
+                });
+    }
+}
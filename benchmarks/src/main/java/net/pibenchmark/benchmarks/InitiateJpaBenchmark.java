@@ -0,0 +1,78 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.factory.JPAEntitiesFactory;
+import net.pibenchmark.benchmarks.fields.IFieldProvider;
+import net.pibenchmark.benchmarks.fields.IJpaStub;
+import net.pibenchmark.benchmarks.fields.IdAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full path "stub ==> field provider ==> JPA entity" for stubs, whose
+ * entities already exist in the (in-memory) database. This is the re-sync scenario:
+ * the provider finds an existing entity and populates it again.
+ *
+ * With "resync=unchanged" the same stubs are imported again and again, so the code generated
+ * with "stubFingerprint" skips populate(). With "resync=changed" every import alternates
+ * between two revisions of the stubs, so that fingerprints never match.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InitiateJpaBenchmark {
+
+    @Param({Fixtures.CANDIDATE, Fixtures.SYNTHETIC})
+    public String fixture;
+
+    @Param({"unchanged", "changed"})
+    public String resync;
+
+    // revisions of the stubs, imported one after another
+    private Object[][] revisions;
+    private Object[] stubs;
+    private EntityManager em;
+    // one accumulator is shared by all the stubs of an import
+    private final IdAccumulator accumulator = new IdAccumulator();
+    private final IFieldProvider.Context context = new IFieldProvider.Context(this.accumulator);
+    private int next;
+    private int revision;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.revisions = "changed".equals(this.resync)
+                ? new Object[][]{Fixtures.stubs(this.fixture, 100, 0), Fixtures.stubs(this.fixture, 100, 1)}
+                : new Object[][]{Fixtures.stubs(this.fixture, 100, 0)};
+        this.stubs = this.revisions[0];
+        this.em = InMemoryEntityManager.create();
+
+        // store all the entities first, so that providers can find them
+        for (Object stub : this.stubs) {
+            final IJpaStub jpa = this.provider(stub).getJPAClass().newInstance();
+            Fixtures.inject(jpa, this.em);
+            jpa.populate(stub, this.accumulator);
+            this.em.persist(jpa);
+        }
+    }
+
+    @Benchmark
+    public IJpaStub initiateJPA() throws Exception {
+        if (this.next == this.stubs.length) {
+            this.next = 0;
+            this.revision = (this.revision + 1) % this.revisions.length;
+            this.stubs = this.revisions[this.revision];
+        }
+        final Object stub = this.stubs[this.next++];
+        return this.provider(stub).initiateJPA(stub, this.context);
+    }
+
+    private IFieldProvider provider(Object stub) throws Exception {
+        final IFieldProvider provider = JPAEntitiesFactory.getInstance().createForStub(stub).get();
+        Fixtures.inject(provider, this.em);
+        return provider;
+    }
+}
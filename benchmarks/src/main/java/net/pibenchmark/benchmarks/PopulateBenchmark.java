@@ -0,0 +1,56 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.factory.JPAEntitiesFactory;
+import net.pibenchmark.benchmarks.fields.IJpaStub;
+import net.pibenchmark.benchmarks.fields.IdAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures populating of a new JPA entity from a stub, including its nested
+ * entities, collections and lookups of existing collection items.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PopulateBenchmark {
+
+    @Param({Fixtures.CANDIDATE, Fixtures.SYNTHETIC})
+    public String fixture;
+
+    private Object[] stubs;
+    private Class<? extends IJpaStub>[] jpaClasses;
+    private EntityManager em;
+    // one accumulator is shared by all the stubs of an import
+    private final IdAccumulator accumulator = new IdAccumulator();
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        this.stubs = Fixtures.stubs(this.fixture, 100);
+        this.jpaClasses = new Class[this.stubs.length];
+        for (int i = 0; i < this.stubs.length; i++) {
+            this.jpaClasses[i] = JPAEntitiesFactory.getInstance()
+                    .createForStub(this.stubs[i]).get()
+                    .getJPAClass();
+        }
+        this.em = InMemoryEntityManager.create();
+    }
+
+    @Benchmark
+    public IJpaStub populate() throws Exception {
+        if (this.next == this.stubs.length) {
+            this.next = 0;
+        }
+        final IJpaStub jpa = this.jpaClasses[this.next].newInstance();
+        Fixtures.inject(jpa, this.em);
+        jpa.populate(this.stubs[this.next++], this.accumulator);
+        return jpa;
+    }
+}
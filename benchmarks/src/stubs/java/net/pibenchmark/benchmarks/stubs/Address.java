@@ -0,0 +1,18 @@
+package net.pibenchmark.benchmarks.stubs;
+
+/**
+ * WSDL-like stub without an ident field.
+ */
+public class Address {
+
+    protected String city;
+    protected String street;
+    protected String zip;
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+    public String getStreet() { return street; }
+    public void setStreet(String street) { this.street = street; }
+    public String getZip() { return zip; }
+    public void setZip(String zip) { this.zip = zip; }
+}
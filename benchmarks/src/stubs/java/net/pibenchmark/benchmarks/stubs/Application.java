@@ -0,0 +1,18 @@
+package net.pibenchmark.benchmarks.stubs;
+
+/**
+ * WSDL-like stub with an ident field, referenced from a collection.
+ */
+public class Application {
+
+    protected String id;
+    protected String status;
+    protected String source;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+}
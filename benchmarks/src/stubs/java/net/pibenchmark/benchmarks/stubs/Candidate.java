@@ -0,0 +1,51 @@
+package net.pibenchmark.benchmarks.stubs;
+
+import javax.xml.bind.annotation.XmlElement;
+import java.util.List;
+
+/**
+ * WSDL-like stub, written in the same way as CXF does: a class with fields, getters and setters.
+ */
+public class Candidate {
+
+    protected String id;
+    @XmlElement(name = "first_name")
+    protected String firstName;
+    protected String lastName;
+    protected Integer age;
+    protected byte[] photo;
+    protected List<Application> applications;
+    protected Address address;
+    protected Address[] previousAddresses;
+    protected Candidate.Phone phone;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+    public Integer getAge() { return age; }
+    public void setAge(Integer age) { this.age = age; }
+    public byte[] getPhoto() { return photo; }
+    public void setPhoto(byte[] photo) { this.photo = photo; }
+    public List<Application> getApplications() { return applications; }
+    public void setApplications(List<Application> applications) { this.applications = applications; }
+    public Address getAddress() { return address; }
+    public void setAddress(Address address) { this.address = address; }
+    public Address[] getPreviousAddresses() { return previousAddresses; }
+    public void setPreviousAddresses(Address[] previousAddresses) { this.previousAddresses = previousAddresses; }
+    public Candidate.Phone getPhone() { return phone; }
+    public void setPhone(Candidate.Phone phone) { this.phone = phone; }
+
+    public static class Phone {
+
+        protected String number;
+        protected String kind;
+
+        public String getNumber() { return number; }
+        public void setNumber(String number) { this.number = number; }
+        public String getKind() { return kind; }
+        public void setKind(String kind) { this.kind = kind; }
+    }
+}
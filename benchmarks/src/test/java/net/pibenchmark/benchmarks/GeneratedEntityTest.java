@@ -0,0 +1,227 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.fields.IdAccumulator;
+import net.pibenchmark.benchmarks.stubs.Address;
+import net.pibenchmark.benchmarks.stubs.AddressJPA;
+import net.pibenchmark.benchmarks.stubs.Application;
+import net.pibenchmark.benchmarks.stubs.ApplicationJPA;
+import net.pibenchmark.benchmarks.stubs.Candidate;
+import net.pibenchmark.benchmarks.stubs.CandidateJPA;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs populate() of the entities, generated for the hand-written stubs
+ */
+public class GeneratedEntityTest {
+
+    private EntityManager em;
+    private IdAccumulator accumulator;
+
+    @Before
+    public void setUp() {
+        this.em = InMemoryEntityManager.create();
+        this.accumulator = new IdAccumulator();
+    }
+
+    @Test
+    public void testExistingItemsAreLoadedByChunksOfIds() {
+
+        // given: 1200 applications stored in the database
+        final Candidate stub = candidate(1, 1200);
+        final List<ApplicationJPA> stored = new ArrayList<>();
+        for (Application application : stub.getApplications()) {
+            final ApplicationJPA jpa = this.entity(new ApplicationJPA());
+            jpa.populate(application, this.accumulator);
+            this.em.persist(jpa);
+            stored.add(jpa);
+        }
+
+        // when: a new candidate is populated
+        final CandidateJPA candidate = this.entity(new CandidateJPA());
+        candidate.populate(stub, this.accumulator);
+
+        // then: the applications are loaded by 3 queries of at most 500 IDs, and the stored entities are reused
+        assertEquals(3, InMemoryEntityManager.countOfQueries(this.em));
+        assertEquals(500, InMemoryEntityManager.maxIdsPerQuery(this.em));
+        assertEquals(stored.size(), candidate.getApplications().size());
+        for (int i = 0; i < stored.size(); i++) {
+            assertSame(stored.get(i), candidate.getApplications().get(i));
+        }
+    }
+
+    @Test
+    public void testItemsOfTheCollectionAreNotLoadedAgain() {
+
+        // given: populated candidate
+        final Candidate stub = candidate(1, 20);
+        final CandidateJPA candidate = this.entity(new CandidateJPA());
+        candidate.populate(stub, this.accumulator);
+        final int cntQueries = InMemoryEntityManager.countOfQueries(this.em);
+
+        // when: it is populated with the same stub again
+        candidate.populate(stub, this.accumulator);
+
+        // then: its applications are taken from the collection, without any query
+        assertEquals(cntQueries, InMemoryEntityManager.countOfQueries(this.em));
+        assertEquals(20, candidate.getApplications().size());
+    }
+
+    @Test
+    public void testUnchangedStubChangesNothing() {
+
+        // given: populated candidate
+        final CandidateJPA candidate = this.entity(new CandidateJPA());
+        candidate.populate(fullCandidate(1), this.accumulator);
+        final ApplicationJPA application = candidate.getApplications().get(0);
+        final AddressJPA address = candidate.getAddress();
+
+        // when: it is populated with an equal stub
+        candidate.populate(fullCandidate(1), this.accumulator);
+
+        // then: nothing is changed, children are reused
+        assertEquals(0, candidate.getChangedFieldsCount());
+        assertSame(application, candidate.getApplications().get(0));
+        assertSame(address, candidate.getAddress());
+    }
+
+    @Test
+    public void testChangedFieldsAreCounted() {
+
+        // given: populated candidate
+        final CandidateJPA candidate = this.entity(new CandidateJPA());
+        candidate.populate(fullCandidate(1), this.accumulator);
+
+        // when: one field of the candidate and one field of its address are changed
+        final Candidate stub = fullCandidate(1);
+        stub.setLastName("Changed");
+        stub.getAddress().setCity("Changed");
+        candidate.populate(stub, this.accumulator);
+
+        // then: both changes are counted
+        assertEquals(2, candidate.getChangedFieldsCount());
+        assertEquals("Changed", candidate.getLastName());
+        assertEquals("Changed", candidate.getAddress().getCity());
+    }
+
+    @Test
+    public void testArrayItemsAreReusedByIndex() {
+
+        // given: candidate populated with two previous addresses
+        final CandidateJPA candidate = this.entity(new CandidateJPA());
+        candidate.populate(fullCandidate(1), this.accumulator);
+        final List<AddressJPA> addresses = new ArrayList<>(candidate.getPreviousAddresses());
+
+        // when: the second address is changed
+        final Candidate stub = fullCandidate(1);
+        stub.getPreviousAddresses()[1].setCity("Changed");
+        candidate.populate(stub, this.accumulator);
+
+        // then: the items are populated in place
+        assertEquals(1, candidate.getChangedFieldsCount());
+        assertEquals(addresses, candidate.getPreviousAddresses());
+        assertSame(addresses.get(0), candidate.getPreviousAddresses().get(0));
+        assertSame(addresses.get(1), candidate.getPreviousAddresses().get(1));
+        assertEquals("Changed", candidate.getPreviousAddresses().get(1).getCity());
+    }
+
+    @Test
+    public void testFieldsRemovedFromTheStubAreReset() {
+
+        // given: populated candidate
+        final CandidateJPA candidate = this.entity(new CandidateJPA());
+        candidate.populate(fullCandidate(1), this.accumulator);
+        final AddressJPA address = candidate.getAddress();
+
+        // when: simple field, collection, array, embedded object and a field of the address are removed from the stub
+        final Candidate stub = fullCandidate(1);
+        stub.setLastName(null);
+        stub.setApplications(null);
+        stub.setPreviousAddresses(null);
+        stub.setPhone(null);
+        stub.getAddress().setStreet(null);
+        candidate.populate(stub, this.accumulator);
+
+        // then: they are reset in the entity, while the address is still populated in place
+        assertEquals(5, candidate.getChangedFieldsCount());
+        assertNull(candidate.getLastName());
+        assertTrue(candidate.getApplications().isEmpty());
+        assertTrue(candidate.getPreviousAddresses().isEmpty());
+        assertNull(candidate.getPhone().getNumber());
+        assertSame(address, candidate.getAddress());
+        assertNull(candidate.getAddress().getStreet());
+        assertEquals("City 1", candidate.getAddress().getCity());
+    }
+
+    @Test
+    public void testChangesOfClearedChildrenAreCounted() {
+
+        // given: populated candidate
+        final CandidateJPA candidate = this.entity(new CandidateJPA());
+        candidate.populate(fullCandidate(1), this.accumulator);
+        final AddressJPA address = candidate.getAddress();
+
+        // when: all the fields of the address and of the embedded object are cleared
+        final Candidate stub = fullCandidate(1);
+        stub.setAddress(new Address());
+        stub.setPhone(new Candidate.Phone());
+        candidate.populate(stub, this.accumulator);
+
+        // then: city and street of the address, number and kind of the phone are counted as changes
+        assertEquals(4, candidate.getChangedFieldsCount());
+        assertSame(address, candidate.getAddress());
+        assertNull(candidate.getAddress().getCity());
+        assertNull(candidate.getAddress().getStreet());
+        assertNull(candidate.getPhone().getNumber());
+    }
+
+    /**
+     * Injects the entity manager, as Spring does for a new entity
+     */
+    private <T> T entity(T jpa) {
+        Fixtures.inject(jpa, this.em);
+        return jpa;
+    }
+
+    private static Candidate candidate(long id, int cntApplications) {
+        final Candidate candidate = new Candidate();
+        candidate.setId(String.valueOf(id));
+        candidate.setFirstName("First " + id);
+        candidate.setLastName("Last " + id);
+        candidate.setApplications(new ArrayList<>());
+        for (int i = 0; i < cntApplications; i++) {
+            final Application application = new Application();
+            application.setId(String.valueOf(id * 10000 + i));
+            application.setStatus("OPEN");
+            candidate.getApplications().add(application);
+        }
+        return candidate;
+    }
+
+    /**
+     * Candidate with all the kinds of fields: simple ones, collection, array, complex type and embedded object
+     */
+    private static Candidate fullCandidate(long id) {
+        final Candidate candidate = candidate(id, 2);
+        candidate.setAge(30);
+        candidate.setAddress(address("City " + id));
+        candidate.setPreviousAddresses(new Address[]{address("Previous city 1"), address("Previous city 2")});
+        candidate.setPhone(new Candidate.Phone());
+        candidate.getPhone().setNumber("+358 " + id);
+        candidate.getPhone().setKind("mobile");
+        return candidate;
+    }
+
+    private static Address address(String city) {
+        final Address address = new Address();
+        address.setCity(city);
+        address.setStreet("Street of " + city);
+        return address;
+    }
+}
@@ -0,0 +1,152 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.factory.JPAEntitiesFactory;
+import net.pibenchmark.benchmarks.fields.IdAccumulator;
+import net.pibenchmark.benchmarks.stubs.Address;
+import net.pibenchmark.benchmarks.stubs.Application;
+import net.pibenchmark.benchmarks.stubs.Candidate;
+import net.pibenchmark.benchmarks.stubs.CandidateJPA;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the generated factory over the hand-written stubs
+ */
+public class GeneratedFactoryTest {
+
+    private final JPAEntitiesFactory factory = JPAEntitiesFactory.getInstance();
+    private EntityManager em;
+
+    @Before
+    public void setUp() {
+        this.em = InMemoryEntityManager.create();
+
+        // in the application it is done by Spring
+        Fixtures.inject(this.factory, this.em);
+        for (Class<?> stubClass : Arrays.asList(Candidate.class, Application.class, Address.class)) {
+            Fixtures.inject(this.factory.createForClassName(stubClass.getCanonicalName()).get(), this.em);
+        }
+    }
+
+    @Test
+    public void testStubsAreIngestedByBatches() throws Exception {
+
+        // given: 25 stored candidates and their stubs together with an object, that is not a stub
+        final Object[] stubs = Fixtures.stubs(Fixtures.CANDIDATE, 25);
+        final List<CandidateJPA> candidates = this.store(stubs);
+        final List<Object> input = new ArrayList<>(Arrays.asList(stubs));
+        input.add(10, "not a stub");
+
+        // when: they are ingested by batches of 10
+        final int cntChanged = this.factory.ingest(input.stream(), 10);
+
+        // then: all the candidates are populated, and the persistence context is flushed after every batch
+        assertEquals(25, cntChanged);
+        assertEquals(3, InMemoryEntityManager.countOfFlushes(this.em));
+        for (int i = 0; i < stubs.length; i++) {
+            assertEquals(((Candidate) stubs[i]).getLastName(), candidates.get(i).getLastName());
+        }
+    }
+
+    @Test
+    public void testOnlyChangedEntitiesAreCounted() throws Exception {
+
+        // given: 10 imported candidates
+        final Object[] stubs = Fixtures.stubs(Fixtures.CANDIDATE, 10);
+        this.store(stubs);
+        assertEquals(10, this.factory.ingest(Stream.of(stubs), 4));
+
+        // when: the same stubs are imported again, and then the stubs of 3 candidates are changed
+        final int cntUnchanged = this.factory.ingest(Stream.of(stubs), 4);
+        for (int i = 0; i < 3; i++) {
+            ((Candidate) stubs[i]).setLastName("Changed " + i);
+        }
+        final int cntChanged = this.factory.ingest(Stream.of(stubs), 4);
+
+        // then: only the changed candidates are counted
+        assertEquals(0, cntUnchanged);
+        assertEquals(3, cntChanged);
+    }
+
+    @Test
+    public void testEmptyStreamIsNotFlushed() {
+
+        // when: nothing is ingested
+        final int cntChanged = this.factory.ingest(Stream.empty(), 10, new IdAccumulator());
+
+        // then: nothing is written
+        assertEquals(0, cntChanged);
+        assertEquals(0, InMemoryEntityManager.countOfFlushes(this.em));
+    }
+
+    @Test
+    public void testEmptyInstancesAreLoadedByChunks() {
+
+        // given: candidate, imported with 5 applications, that have only IDs
+        final Candidate stub = new Candidate();
+        stub.setId("1");
+        stub.setLastName("Last 1");
+        stub.setApplications(new ArrayList<>());
+        for (int i = 0; i < 5; i++) {
+            stub.getApplications().add(application(100 + i, null));
+        }
+        final CandidateJPA candidate = this.store(new Object[]{stub}).get(0);
+        final IdAccumulator accumulator = new IdAccumulator();
+        this.factory.ingest(Stream.of(stub), 10, accumulator);
+        assertEquals(5, accumulator.getIds(Application.class.getCanonicalName()).length);
+
+        // when: the empty applications are loaded by chunks of 2 IDs
+        final List<long[]> requests = new ArrayList<>();
+        final int cntPopulated = this.factory.loadEmptyInstances(accumulator, 2, (stubClassName, ids) -> {
+            assertEquals(Application.class.getCanonicalName(), stubClassName);
+            requests.add(ids);
+            final List<Application> applications = new ArrayList<>();
+            for (long id : ids) {
+                applications.add(application(id, "OPEN"));
+            }
+            return applications;
+        });
+
+        // then: every application is requested once and populated, the accumulator is drained
+        assertEquals(5, cntPopulated);
+        assertEquals(3, requests.size());
+        assertEquals(2, requests.get(0).length);
+        assertEquals(2, requests.get(1).length);
+        assertEquals(1, requests.get(2).length);
+        assertTrue(accumulator.isEmpty());
+        assertEquals(5, candidate.getApplications().size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("OPEN", candidate.getApplications().get(i).getStatus());
+        }
+    }
+
+    /**
+     * Stores the entities of given candidates, so that the factory finds them. New entities,
+     * created by the generated code, would get the entity manager only from Spring
+     */
+    private List<CandidateJPA> store(Object[] stubs) {
+        final List<CandidateJPA> candidates = new ArrayList<>();
+        for (Object stub : stubs) {
+            final CandidateJPA candidate = new CandidateJPA();
+            candidate.setId(Long.parseLong(((Candidate) stub).getId()));
+            this.em.persist(candidate);
+            candidates.add(candidate);
+        }
+        return candidates;
+    }
+
+    private static Application application(long id, String status) {
+        final Application application = new Application();
+        application.setId(String.valueOf(id));
+        application.setStatus(status);
+        return application;
+    }
+}
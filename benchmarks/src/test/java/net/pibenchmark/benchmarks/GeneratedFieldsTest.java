@@ -0,0 +1,101 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.factory.JPAEntitiesFactory;
+import net.pibenchmark.benchmarks.fields.IFieldProvider;
+import net.pibenchmark.benchmarks.fields.IdAccumulator;
+import net.pibenchmark.benchmarks.stubs.Candidate;
+import net.pibenchmark.benchmarks.stubs.CandidateJPA;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs initiateJPA() of the Fields providers, generated for the hand-written stubs
+ */
+public class GeneratedFieldsTest {
+
+    private EntityManager em;
+    private IFieldProvider.Context context;
+
+    @Before
+    public void setUp() throws Exception {
+        this.em = InMemoryEntityManager.create();
+        this.context = new IFieldProvider.Context(new IdAccumulator());
+    }
+
+    @Test
+    public void testUnchangedStubIsNotPopulatedAgain() throws Exception {
+        assumeTrue(hasFingerprint());
+
+        // given: imported candidate, whose entity was changed afterwards
+        final Candidate stub = candidate(1);
+        final CandidateJPA candidate = this.store(1);
+        assertSame(candidate, this.initiateJPA(stub));
+        candidate.setLastName("Changed in the database");
+
+        // when: the same stub is imported again
+        final CandidateJPA imported = this.initiateJPA(stub);
+
+        // then: the entity is returned as it is
+        assertSame(candidate, imported);
+        assertEquals("Changed in the database", imported.getLastName());
+    }
+
+    @Test
+    public void testChangedStubIsPopulated() throws Exception {
+
+        // given: imported candidate
+        final CandidateJPA candidate = this.store(1);
+        this.initiateJPA(candidate(1));
+
+        // when: the changed stub is imported
+        final Candidate stub = candidate(1);
+        stub.setLastName("Changed in the service");
+        final CandidateJPA imported = this.initiateJPA(stub);
+
+        // then: the entity is populated again
+        assertSame(candidate, imported);
+        assertEquals("Changed in the service", imported.getLastName());
+        assertEquals(1, imported.getChangedFieldsCount());
+    }
+
+    /**
+     * Stores the entity of a candidate, so that initiateJPA() finds it
+     */
+    private CandidateJPA store(long id) {
+        final CandidateJPA candidate = new CandidateJPA();
+        candidate.setId(id);
+        this.em.persist(candidate);
+        return candidate;
+    }
+
+    private CandidateJPA initiateJPA(Candidate stub) {
+        final IFieldProvider provider = JPAEntitiesFactory.getInstance().createForStub(stub).get();
+        Fixtures.inject(provider, this.em);
+        return (CandidateJPA) provider.initiateJPA(stub, this.context);
+    }
+
+    /**
+     * The module can be built with "-Dstub.fingerprint=false", see README
+     */
+    private static boolean hasFingerprint() {
+        try {
+            CandidateJPA.class.getMethod("getStubFingerprint");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Candidate candidate(long id) {
+        final Candidate candidate = new Candidate();
+        candidate.setId(String.valueOf(id));
+        candidate.setFirstName("First " + id);
+        candidate.setLastName("Last " + id);
+        return candidate;
+    }
+}
@@ -0,0 +1,143 @@
+package net.pibenchmark.benchmarks;
+
+import net.pibenchmark.benchmarks.factory.JPAEntitiesFactory;
+import net.pibenchmark.benchmarks.factory.JPAEntitiesIngestionRunner;
+import net.pibenchmark.benchmarks.fields.IdAccumulator;
+import net.pibenchmark.benchmarks.stubs.Address;
+import net.pibenchmark.benchmarks.stubs.Application;
+import net.pibenchmark.benchmarks.stubs.Candidate;
+import net.pibenchmark.benchmarks.stubs.CandidateJPA;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the generated ingestion runner over the hand-written stubs
+ */
+public class GeneratedIngestionRunnerTest {
+
+    private final AtomicInteger cntCommits = new AtomicInteger();
+    private final AtomicInteger cntRollbacks = new AtomicInteger();
+
+    // transaction manager without a database: it only counts the outcomes of transactions
+    private final PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            cntCommits.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            cntRollbacks.incrementAndGet();
+        }
+    };
+
+    private EntityManager em;
+    private ExecutorService executor;
+    private JPAEntitiesIngestionRunner runner;
+
+    @Before
+    public void setUp() {
+        this.em = InMemoryEntityManager.create();
+
+        // in the application it is done by Spring
+        final JPAEntitiesFactory factory = JPAEntitiesFactory.getInstance();
+        Fixtures.inject(factory, this.em);
+        for (Class<?> stubClass : Arrays.asList(Candidate.class, Application.class, Address.class)) {
+            Fixtures.inject(factory.createForClassName(stubClass.getCanonicalName()).get(), this.em);
+        }
+
+        this.executor = JPAEntitiesIngestionRunner.newWorkerExecutor(4);
+        this.runner = new JPAEntitiesIngestionRunner(this.executor, this.transactionManager, 5, 2);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testBatchesAreIngestedAndAccumulatorsAreMerged() {
+
+        // given: 23 stored candidates, each of them refers to 2 empty applications
+        final List<Candidate> stubs = new ArrayList<>();
+        final List<CandidateJPA> candidates = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            stubs.add(candidate(String.valueOf(i)));
+            candidates.add(this.store(i));
+        }
+
+        // when: they are ingested by batches of 5
+        final IdAccumulator accumulator = new IdAccumulator();
+        final int cntChanged = this.runner.ingest(stubs.stream(), accumulator);
+
+        // then: every batch is committed, and the empty applications of all the batches are in the accumulator
+        assertEquals(23, cntChanged);
+        assertEquals(5, this.cntCommits.get());
+        assertEquals(0, this.cntRollbacks.get());
+        assertEquals(46, accumulator.getIds(Application.class.getCanonicalName()).length);
+        for (int i = 0; i < 23; i++) {
+            assertEquals("Last " + i, candidates.get(i).getLastName());
+        }
+    }
+
+    @Test
+    public void testFailedBatchIsRolledBack() {
+
+        // given: 10 candidates, one of them has a broken ID
+        final List<Candidate> stubs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            stubs.add(candidate(i == 7 ? "broken" : String.valueOf(i)));
+            this.store(i);
+        }
+
+        // when: they are ingested by batches of 5
+        try {
+            this.runner.ingest(stubs.stream(), new IdAccumulator());
+            fail("The failure of the batch should be thrown");
+        }
+        catch (NumberFormatException e) {
+            // then: the batch with the broken candidate is rolled back, while the other one is committed
+            assertEquals(1, this.cntCommits.get());
+            assertEquals(1, this.cntRollbacks.get());
+        }
+    }
+
+    private CandidateJPA store(long id) {
+        final CandidateJPA candidate = new CandidateJPA();
+        candidate.setId(id);
+        this.em.persist(candidate);
+        return candidate;
+    }
+
+    private static Candidate candidate(String id) {
+        final Candidate candidate = new Candidate();
+        candidate.setId(id);
+        candidate.setLastName("Last " + id);
+        candidate.setApplications(new ArrayList<>());
+        for (int i = 0; i < 2; i++) {
+            final Application application = new Application();
+            application.setId(id + "00" + i);
+            candidate.getApplications().add(application);
+        }
+        return candidate;
+    }
+}
@@ -2,9 +2,13 @@ package net.pibenchmark;
 
 import com.google.common.base.CaseFormat;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.thoughtworks.qdox.JavaProjectBuilder;
 import com.thoughtworks.qdox.model.*;
 import com.thoughtworks.qdox.model.expression.AnnotationValue;
@@ -12,19 +16,29 @@ import com.thoughtworks.qdox.model.expression.AnnotationValueList;
 import com.thoughtworks.qdox.model.impl.DefaultJavaAnnotation;
 import net.pibenchmark.pojo.FieldType;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.time.DateFormatUtils;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElements;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collector;
@@ -78,6 +92,9 @@ public class BuildHelper {
         Map<String, FieldType> map = Maps.newTreeMap();
         boolean isGetter;
 
+        // fields of the class and its parent, built once instead of scanning them for every getter
+        final Map<String, JavaField> mapOfJavaFields = buildFieldIndex(jc);
+
         final List<JavaMethod> lstMethods = jc.getMethods();
         /* if (null != jc.getSuperJavaClass()) {
             lstMethods.addAll(jc.getSuperJavaClass().getMethods());
@@ -90,18 +107,14 @@ public class BuildHelper {
 
                 if (!RESERVED_TYPES.contains(returnType.getTypeName()) && returnType.isDefined()) {
                     String fieldName = extractFieldName(method.getName());
-                    final String fieldByNameClone = fieldName; // in order to use it in lambdas
 
                     // check: if a field exists, then it must be annotated with @XmlElement
-                    final Optional<JavaField> optField = collectParentFields(jc)
-                            .parallelStream()
-                            .filter((javaField) -> javaField.getName().equalsIgnoreCase(fieldByNameClone))
-                            .findFirst();
+                    final JavaField javaField = mapOfJavaFields.get(fieldName);
 
-                    if (optField.isPresent()) {
+                    if (null != javaField) {
 
                         // if current field is marked as @XmlElement, then use value from this annotation. Otherwise, use field name iself
-                        fieldName = optField.get().getAnnotations()
+                        fieldName = javaField.getAnnotations()
                                 .stream()
                                 .filter((annotation) -> annotation.getType().isA(XmlElement.class.getCanonicalName())
                                         && annotation.getProperty("name") != null)
@@ -111,7 +124,7 @@ public class BuildHelper {
                                 .orElse(fieldName);
 
                         // if current field is polymorphic (has many implementations) then collect all its implementations
-                        returnType.addImplementations(extractImplementations(optField.get()));
+                        returnType.addImplementations(extractImplementations(javaField));
 
                     }
 
@@ -147,7 +160,7 @@ public class BuildHelper {
     }
 
     static boolean recursivelyLookupForIDfield(JavaClass javaClass, String idFieldName) {
-        if (null == javaClass || javaClass.isArray() || javaClass.isPrimitive() || javaClass.getFullyQualifiedName().equals(java.lang.Object.class.getTypeName())) {
+        if (null == javaClass || javaClass.isArray() || javaClass.isPrimitive() || java.lang.Object.class.getTypeName().equals(javaClass.getFullyQualifiedName())) {
             return false;
         }
         else if (null == javaClass.getSuperJavaClass()) {
@@ -169,12 +182,28 @@ public class BuildHelper {
             return javaClass.getFields();
         }
         else {
-            final List<JavaField> fields = javaClass.getFields();
+            // copy, because QDox may return its own list of fields
+            final List<JavaField> fields = Lists.newArrayList(javaClass.getFields());
             fields.addAll(javaClass.getSuperJavaClass().getFields());
             return fields;
         }
     }
 
+    /**
+     * Builds case-insensitive index "field name" <==> "field" for a class and its parent.
+     * If both of them declare a field with the same name, then the field of the class wins.
+     *
+     * @param javaClass
+     * @return map with case-insensitive keys
+     */
+    static Map<String, JavaField> buildFieldIndex(JavaClass javaClass) {
+        final Map<String, JavaField> index = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (JavaField field : collectParentFields(javaClass)) {
+            index.putIfAbsent(field.getName(), field);
+        }
+        return index;
+    }
+
 
     /**
      * Returns correct type for a method. In the stub a method returns XMLbean name, but we want
@@ -237,12 +266,12 @@ public class BuildHelper {
                         false);
             }
             else {
-                // array of complex types
+                // array of complex types. Its items are looked up by ident field like the items of collections
                 return new FieldType(FieldType.ARRAY_OF_COMPLEX_TYPES,
                         mapInterfaces.get(strTypeOfArray),
                         strTypeOfArray,
                         strTypeOfArray,
-                        false,
+                        recursivelyLookupForIDfield(builder.getClassByName(strTypeOfArray), idFieldName),
                         0,
                         mapInterfaces.containsKey(strTypeOfArray));
             }
@@ -279,24 +308,130 @@ public class BuildHelper {
     }
 
     /**
-     * Write down all the content to a given file
+     * Collects the source files, that affect the generated code of a given class:
+     * the file of the class itself, files of its parents and files of all the types
+     * returned by getters (including getters of nested classes) together with their parents.
+     *
+     * @param jc
+     * @param builder
+     * @return sorted set of source files
+     */
+    public static Set<File> collectSourceFiles(JavaClass jc, JavaProjectBuilder builder) {
+        return collectSourceFiles(jc, builder, ImmutableMultimap.of());
+    }
+
+    /**
+     * Collects the source files, that affect the generated code of a given class (see {@link #collectSourceFiles(JavaClass, JavaProjectBuilder)}),
+     * together with the files of all the stubs extending these classes: subclasses of the class itself and
+     * implementations of the types returned by getters. So adding a subclass renders its parents again.
      *
-     * @param content
-     * @param file
-     * @return result as boolean
+     * @param jc
+     * @param builder
+     * @param mapSubclasses - see {@link #buildMapOfSubclasses(Collection)}
+     * @return sorted set of source files
+     */
+    public static Set<File> collectSourceFiles(JavaClass jc, JavaProjectBuilder builder, Multimap<String, JavaClass> mapSubclasses) {
+        final Set<File> files = Sets.newTreeSet();
+        collectSourceFilesOfClassAndReferences(jc, builder, mapSubclasses, files);
+        return files;
+    }
+
+    /**
+     * Builds the map "FQN of a class" <==> "stub classes, directly extending it"
      *
-     * @throws MojoFailureException
+     * @param stubClasses - all the stub classes, including nested ones
+     * @return map
      */
-    public static boolean writeContentToFile(String content, File file) throws MojoFailureException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
+    public static Multimap<String, JavaClass> buildMapOfSubclasses(Collection<JavaClass> stubClasses) {
+        final ImmutableListMultimap.Builder<String, JavaClass> mapSubclasses = ImmutableListMultimap.builder();
+        for (JavaClass jc : stubClasses) {
+            final JavaClass parent = jc.getSuperJavaClass();
+            if (null != parent) {
+                mapSubclasses.put(parent.getFullyQualifiedName(), jc);
+            }
+        }
+        return mapSubclasses.build();
+    }
+
+    private static void collectSourceFilesOfClassAndReferences(JavaClass jc, JavaProjectBuilder builder,
+                                                               Multimap<String, JavaClass> mapSubclasses, Set<File> files) {
+        collectSourceFilesOfParents(jc, files);
+        collectSourceFilesOfSubclasses(jc, mapSubclasses, files);
+
+        for (JavaMethod method : jc.getMethods()) {
+            if (method.getName().startsWith("get") && method.getParameters().isEmpty()) {
+                String strType = method.getReturnType().getGenericFullyQualifiedName().replace('$', '.');
+                if (strType.contains("<")) {
+                    strType = extractGenericTypeFromCollection(strType);
+                }
+                if (strType.endsWith("[]")) {
+                    strType = strType.substring(0, strType.length() - 2);
+                }
+                if (!PRIMITIVES.contains(strType)) {
+                    final JavaClass referencedClass = builder.getClassByName(strType);
+                    collectSourceFilesOfParents(referencedClass, files);
+                    collectSourceFilesOfSubclasses(referencedClass, mapSubclasses, files);
+                }
+            }
+        }
+
+        for (JavaClass nestedClass : jc.getNestedClasses()) {
+            collectSourceFilesOfClassAndReferences(nestedClass, builder, mapSubclasses, files);
+        }
+    }
 
-            bw.write(content.toString());
+    private static void collectSourceFilesOfSubclasses(JavaClass jc, Multimap<String, JavaClass> mapSubclasses, Set<File> files) {
+        for (JavaClass subclass : mapSubclasses.get(jc.getFullyQualifiedName())) {
+            final JavaSource source = subclass.getSource();
+            final File sourceFile = null == source ? null : toSourceFile(source.getURL());
+            if (null != sourceFile) {
+                files.add(sourceFile);
+            }
+            collectSourceFilesOfSubclasses(subclass, mapSubclasses, files);
+        }
+    }
 
-        } catch (IOException e) {
-            throw new MojoFailureException(e.getMessage());
+    private static void collectSourceFilesOfParents(JavaClass jc, Set<File> files) {
+        for (JavaClass current = jc; null != current; current = current.getSuperJavaClass()) {
+            if (current.isPrimitive() || current.getFullyQualifiedName().equals(java.lang.Object.class.getTypeName())) {
+                return;
+            }
+            final JavaSource source = current.getSource();
+            final File sourceFile = null == source ? null : toSourceFile(source.getURL());
+            if (null != sourceFile) {
+                files.add(sourceFile);
+            }
         }
+    }
 
-        return true;
+    /**
+     * Returns the file, that a class was read from. A class, read from a JAR (see {@link BytecodeStubReader}),
+     * is represented by the JAR itself, so that any change of the JAR is noticed
+     *
+     * @param url - URL of a source: "file:" or "jar:file:...!/entry"
+     * @return file or null, if the source is not a local file
+     */
+    static File toSourceFile(URL url) {
+        if (null == url) {
+            return null;
+        }
+        if ("jar".equals(url.getProtocol())) {
+            final String spec = url.getFile();
+            final int separator = spec.indexOf("!/");
+            try {
+                return toSourceFile(new URL(separator < 0 ? spec : spec.substring(0, separator)));
+            } catch (MalformedURLException e) {
+                return null;
+            }
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return new File(url.toURI());
+            } catch (URISyntaxException e) {
+                return new File(url.getFile());
+            }
+        }
+        return null;
     }
 
     /**
@@ -343,6 +478,83 @@ public class BuildHelper {
         return jpaOutputDir;
     }
 
+    /**
+     * Compiles patterns of class names into one regular expression. In a pattern "**" matches any part
+     * of a name, "*" matches any part between two dots, e.g. "com.example.*" or "**Factory"
+     *
+     * @param patterns - patterns of fully qualified class names, nested classes are separated with dots
+     * @return regular expression, matching a name if any of the patterns matches it
+     */
+    public static Pattern compileClassNamePatterns(String[] patterns) {
+        if (null == patterns || patterns.length == 0) {
+            // matches nothing
+            return Pattern.compile("(?!)");
+        }
+        return Pattern.compile(Stream.of(patterns)
+                .map(String::trim)
+                .map((pattern) -> Stream.of(pattern.split("\\*\\*", -1))
+                        .map((part) -> Stream.of(part.split("\\*", -1))
+                                .map((literal) -> literal.isEmpty() ? "" : Pattern.quote(literal))
+                                .collect(Collectors.joining("[^.]*")))
+                        .collect(Collectors.joining(".*")))
+                .collect(Collectors.joining("|", "(?:", ")")));
+    }
+
+    /**
+     * Adds to the builder the source files of stubs. A class name is derived from the path of a file,
+     * so excluded files are not even read
+     *
+     * @param sourceDir - root directory of stub sources
+     * @param builder - QDox builder
+     * @param isStub - returns TRUE for a FQN of a class, that is a stub
+     * @return number of added files
+     * @throws IOException
+     */
+    public static int addStubSources(File sourceDir, JavaProjectBuilder builder, Predicate<String> isStub) throws IOException {
+        final Path root = sourceDir.toPath();
+        final List<Path> sourceFiles;
+        try (Stream<Path> paths = Files.walk(root)) {
+            sourceFiles = paths
+                    .filter((path) -> path.toString().endsWith(".java"))
+                    .filter((path) -> {
+                        final String relativePath = root.relativize(path).toString();
+                        return isStub.test(relativePath
+                                .substring(0, relativePath.length() - ".java".length())
+                                .replace(File.separatorChar, '.'));
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path sourceFile : sourceFiles) {
+            builder.addSource(sourceFile.toFile());
+        }
+        return sourceFiles.size();
+    }
+
+    /**
+     * Formats the date of @Generated annotations in ISO 8601. Generated sources must be byte-identical
+     * between builds, so that the unchanged files are not written again: without a fixed timestamp
+     * the date is omitted rather than taken from the clock
+     *
+     * @param outputTimestamp - ISO 8601 date or seconds since the epoch, as "project.build.outputTimestamp"
+     * @return formatted date, or NULL if the timestamp is empty
+     * @throws MojoFailureException if the timestamp can not be parsed
+     */
+    public static String formatGenerationDate(String outputTimestamp) throws MojoFailureException {
+        if (StringUtils.isBlank(outputTimestamp)) {
+            return null;
+        }
+        final long millis;
+        try {
+            millis = StringUtils.isNumeric(outputTimestamp)
+                    ? TimeUnit.SECONDS.toMillis(Long.parseLong(outputTimestamp))
+                    : OffsetDateTime.parse(outputTimestamp).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new MojoFailureException("Can not parse outputTimestamp '" + outputTimestamp + "': " + e.getMessage());
+        }
+        return DateFormatUtils.formatUTC(millis, DateFormatUtils.ISO_DATETIME_TIME_ZONE_FORMAT.getPattern());
+    }
+
     /**
      * Make sure that package directory exists. If not - create new one
      *
@@ -400,6 +612,48 @@ public class BuildHelper {
         return factoryFile;
     }
 
+    /**
+     * Splits the stubs of the factory into chunks of about a given size. A stub goes to the chunk
+     * number floorMod(hashCode of its name, number of chunks), the same way as the generated factory
+     * routes a stub name to a chunk at runtime.
+     *
+     * @param mapFieldFiles - sorted map "stub name" <==> "Fields class"
+     * @param chunkSize - average number of stubs in one chunk
+     * @return list of chunks, at least one. Every chunk keeps the order of the given map
+     */
+    public static List<Map<String, String>> splitIntoFactoryChunks(Map<String, String> mapFieldFiles, int chunkSize) {
+        final int cntChunks = Math.max(1, (mapFieldFiles.size() + chunkSize - 1) / chunkSize);
+        final List<Map<String, String>> chunks = Lists.newArrayListWithCapacity(cntChunks);
+        for (int i = 0; i < cntChunks; i++) {
+            chunks.add(Maps.newLinkedHashMap());
+        }
+        mapFieldFiles.forEach((stubName, fieldsClass) ->
+                chunks.get(Math.floorMod(stubName.hashCode(), cntChunks)).put(stubName, fieldsClass));
+        return chunks;
+    }
+
+    /**
+     * Finds the files of factory chunks with numbers greater than a given one. They are left from
+     * a previous generation with more chunks and must be removed
+     *
+     * @param strPackagePath - path of the factory package
+     * @param cntChunks - number of the current chunks
+     * @return stale chunk files
+     */
+    public static List<File> findFactoryChunksAfter(final String strPackagePath, final int cntChunks) {
+        final Pattern chunkFileName = Pattern.compile("JPAEntitiesFactoryChunk(\\d+)\\.java");
+        final File[] files = new File(strPackagePath).listFiles();
+        if (null == files) {
+            return Lists.newArrayList();
+        }
+        return Stream.of(files)
+                .filter((file) -> {
+                    final Matcher matcher = chunkFileName.matcher(file.getName());
+                    return matcher.matches() && Integer.parseInt(matcher.group(1)) > cntChunks;
+                })
+                .collect(Collectors.toList());
+    }
+
     /**
      * <p>If a field is marked as @XmlElements, then it should contain the list of implementations.</p>
      *
@@ -0,0 +1,621 @@
+package net.pibenchmark;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaSource;
+import com.thoughtworks.qdox.model.impl.DefaultJavaSource;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.signature.SignatureReader;
+import org.objectweb.asm.signature.SignatureVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds the QDox model of SOAP stubs from their compiled classes instead of their sources.
+ *
+ * Every top-level class (together with its nested classes) is read with ASM, skipping the code
+ * of all the methods, and turned into a Java skeleton: package, class declaration, fields with
+ * their annotations and the methods without parameters (getters). The skeleton is
+ * added to the {@link JavaProjectBuilder}, thus the rest of the plugin (and the built FieldType model)
+ * is the same as for sources. Axis2 stubs spend most of their source on the (de)serialization code,
+ * that is not needed by the plugin, so the skeletons are a small fraction of the sources.
+ *
+ * Source of every skeleton points to its class file, so that the incremental mode tracks class files.
+ */
+public final class BytecodeStubReader {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private BytecodeStubReader() {}
+
+    /**
+     * Reads all the classes from a directory or a JAR file and adds their skeletons to the builder
+     *
+     * @param location - directory with compiled stubs, or JAR file
+     * @param builder - QDox builder
+     * @param isStub - returns TRUE for a FQN of a top-level class, that is a stub
+     * @param isExcluded - returns TRUE for a FQN of a class, that must not be treated as a stub.
+     *                   Class is skipped also when it implements such interface
+     * @return number of added top-level classes
+     * @throws IOException
+     */
+    public static int addStubClasses(File location, JavaProjectBuilder builder, Predicate<String> isStub,
+                                     Predicate<String> isExcluded) throws IOException {
+
+        // map "internal name" <==> "class", sorted to add top-level classes in a stable order
+        final Map<String, ClassSkeleton> mapOfClasses = new TreeMap<>();
+
+        if (location.isDirectory()) {
+            final List<Path> classFiles;
+            try (Stream<Path> paths = Files.walk(location.toPath())) {
+                classFiles = paths
+                        .filter((path) -> path.toString().endsWith(CLASS_SUFFIX))
+                        .collect(Collectors.toList());
+            }
+            for (Path classFile : classFiles) {
+                try (InputStream in = Files.newInputStream(classFile)) {
+                    readClass(in, classFile.toUri().toURL(), mapOfClasses);
+                }
+            }
+        }
+        else {
+            try (ZipFile jar = new ZipFile(location)) {
+                final Enumeration<? extends ZipEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    final ZipEntry entry = entries.nextElement();
+                    if (entry.getName().endsWith(CLASS_SUFFIX)) {
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            readClass(in, new URL("jar:" + location.toURI().toURL() + "!/" + entry.getName()), mapOfClasses);
+                        }
+                    }
+                }
+            }
+        }
+
+        // attach nested classes to their outer classes
+        for (ClassSkeleton skeleton : mapOfClasses.values()) {
+            if (null != skeleton.outerName && mapOfClasses.containsKey(skeleton.outerName)) {
+                mapOfClasses.get(skeleton.outerName).nestedClasses.add(skeleton);
+            }
+        }
+
+        int cntClasses = 0;
+        for (ClassSkeleton skeleton : mapOfClasses.values()) {
+            if (null == skeleton.outerName && isStub.test(toSourceName(skeleton.name)) && !skeleton.isExcluded(isExcluded)) {
+                final JavaSource source = builder.addSource(new StringReader(skeleton.renderSource()));
+                ((DefaultJavaSource) source).setURL(skeleton.url);
+                cntClasses++;
+            }
+        }
+        return cntClasses;
+    }
+
+    private static void readClass(InputStream in, URL url, Map<String, ClassSkeleton> mapOfClasses) throws IOException {
+        final ClassSkeleton skeleton = new ClassSkeleton(url);
+        new ClassReader(in).accept(skeleton, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        // skip anonymous, local and synthetic classes, annotations and package-info
+        if (!skeleton.isSkipped) {
+            mapOfClasses.put(skeleton.name, skeleton);
+        }
+    }
+
+    /**
+     * Turns internal name of a class (com/example/Candidate$Phone) into its name in a source code
+     */
+    private static String toSourceName(String internalName) {
+        return internalName.replace('/', '.').replace('$', '.');
+    }
+
+    /**
+     * Collects the declarations of a class, that are needed to build its skeleton
+     */
+    private static final class ClassSkeleton extends ClassVisitor {
+
+        private final URL url;
+        private final List<String> annotations = Lists.newArrayList();
+        private final List<String> enumConstants = Lists.newArrayList();
+        private final List<String> members = Lists.newArrayList();
+        private final List<ClassSkeleton> nestedClasses = Lists.newArrayList();
+
+        private String name;
+        private String outerName;
+        private String simpleName;
+        private String[] interfaces;
+        private int access;
+        private String declaration;
+        private boolean isSkipped;
+
+        ClassSkeleton(URL url) {
+            super(Opcodes.ASM5);
+            this.url = url;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.name = name;
+            this.access = access;
+            this.interfaces = interfaces;
+            this.simpleName = name.substring(name.lastIndexOf('/') + 1);
+            this.isSkipped = (access & (Opcodes.ACC_SYNTHETIC | Opcodes.ACC_ANNOTATION)) != 0
+                    || this.simpleName.equals("package-info");
+
+            final DeclarationRenderer renderer = new DeclarationRenderer();
+            if (null != signature) {
+                new SignatureReader(signature).accept(renderer);
+            }
+            else {
+                renderer.superClass = null == superName ? null : toSourceName(superName);
+                for (String iface : interfaces) {
+                    renderer.interfaces.add(toSourceName(iface));
+                }
+            }
+            this.declaration = renderer.renderClassDeclaration(
+                    (access & Opcodes.ACC_INTERFACE) != 0,
+                    (access & Opcodes.ACC_ENUM) != 0);
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            if (name.equals(this.name)) {
+                if (null == outerName || null == innerName) {
+                    // anonymous or local class
+                    this.isSkipped = true;
+                }
+                else {
+                    this.outerName = outerName;
+                    this.simpleName = innerName;
+                    // access flags of a nested class are kept only in the InnerClasses attribute
+                    this.access = access;
+                }
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return visible ? new AnnotationRenderer(descriptor, this.annotations::add) : null;
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            if ((access & Opcodes.ACC_SYNTHETIC) != 0) {
+                return null;
+            }
+            if ((access & Opcodes.ACC_ENUM) != 0) {
+                this.enumConstants.add(name);
+                return null;
+            }
+            final List<String> fieldAnnotations = Lists.newArrayList();
+            final String field = modifiers(access & ~Opcodes.ACC_VOLATILE & ~Opcodes.ACC_TRANSIENT)
+                    + renderType(descriptor, signature) + " " + name + ";";
+            this.members.add(field);
+            final int index = this.members.size() - 1;
+            return new FieldVisitor(Opcodes.ASM5) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    return visible ? new AnnotationRenderer(descriptor, fieldAnnotations::add) : null;
+                }
+
+                @Override
+                public void visitEnd() {
+                    if (!fieldAnnotations.isEmpty()) {
+                        members.set(index, Joiner.on(' ').join(fieldAnnotations) + " " + field);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            // only getters contribute to the model. Constructors and initializers are skipped as well
+            if ((access & (Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE)) != 0
+                    || name.startsWith("<")
+                    || Type.getArgumentTypes(descriptor).length != 0) {
+                return null;
+            }
+            final DeclarationRenderer renderer = new DeclarationRenderer();
+            if (null != signature) {
+                new SignatureReader(signature).accept(renderer);
+            }
+            else {
+                renderer.returnType = new StringBuilder(Type.getReturnType(descriptor).getClassName().replace('$', '.'));
+            }
+            this.members.add(modifiers(access & ~Opcodes.ACC_NATIVE & ~Opcodes.ACC_SYNCHRONIZED & ~Opcodes.ACC_ABSTRACT & ~Opcodes.ACC_STRICT)
+                    + renderer.renderMethodDeclaration(name));
+            return null;
+        }
+
+        boolean isExcluded(Predicate<String> isExcluded) {
+            if (isExcluded.test(toSourceName(this.name))) {
+                return true;
+            }
+            for (String iface : this.interfaces) {
+                if (isExcluded.test(toSourceName(iface))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        String renderSource() {
+            final StringBuilder sb = new StringBuilder(1024);
+            final int lastSlash = this.name.lastIndexOf('/');
+            if (lastSlash > 0) {
+                sb.append("package ").append(this.name.substring(0, lastSlash).replace('/', '.')).append(";\n\n");
+            }
+            this.renderClass(sb);
+            return sb.toString();
+        }
+
+        private void renderClass(StringBuilder sb) {
+            for (String annotation : this.annotations) {
+                sb.append(annotation).append('\n');
+            }
+            final boolean isInterface = (this.access & Opcodes.ACC_INTERFACE) != 0;
+            final boolean isEnum = (this.access & Opcodes.ACC_ENUM) != 0;
+            int classModifiers = this.access & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED | Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC);
+            if (!isInterface && !isEnum) {
+                classModifiers |= this.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_FINAL);
+            }
+            sb.append(modifiers(classModifiers))
+                    .append(isInterface ? "interface " : isEnum ? "enum " : "class ")
+                    .append(this.simpleName)
+                    .append(this.declaration)
+                    .append(" {\n");
+            if (isEnum) {
+                sb.append(Joiner.on(", ").join(this.enumConstants)).append(";\n");
+            }
+            for (String member : this.members) {
+                sb.append(member).append('\n');
+            }
+            for (ClassSkeleton nested : this.nestedClasses) {
+                if (!nested.isSkipped) {
+                    nested.renderClass(sb);
+                }
+            }
+            sb.append("}\n");
+        }
+
+        private static String modifiers(int access) {
+            final StringBuilder sb = new StringBuilder();
+            if ((access & Opcodes.ACC_PUBLIC) != 0) sb.append("public ");
+            if ((access & Opcodes.ACC_PROTECTED) != 0) sb.append("protected ");
+            if ((access & Opcodes.ACC_PRIVATE) != 0) sb.append("private ");
+            if ((access & Opcodes.ACC_ABSTRACT) != 0) sb.append("abstract ");
+            if ((access & Opcodes.ACC_STATIC) != 0) sb.append("static ");
+            if ((access & Opcodes.ACC_FINAL) != 0) sb.append("final ");
+            return sb.toString();
+        }
+
+        private static String renderType(String descriptor, String signature) {
+            if (null == signature) {
+                return Type.getType(descriptor).getClassName().replace('$', '.');
+            }
+            final StringBuilder sb = new StringBuilder();
+            new SignatureReader(signature).acceptType(new TypeRenderer(sb));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Renders the generic declaration of a class (type parameters, superclass, interfaces)
+     * or of a method (type parameters, return type) from its signature
+     */
+    private static final class DeclarationRenderer extends SignatureVisitor {
+
+        private final StringBuilder typeParameters = new StringBuilder();
+        private final List<CharSequence> interfaces = Lists.newArrayList();
+        private boolean hasBound;
+        private CharSequence superClass;
+        private StringBuilder returnType;
+
+        DeclarationRenderer() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public void visitFormalTypeParameter(String name) {
+            this.typeParameters.append(this.typeParameters.length() == 0 ? "<" : ", ").append(name);
+            this.hasBound = false;
+        }
+
+        @Override
+        public SignatureVisitor visitClassBound() {
+            return this.visitBound();
+        }
+
+        @Override
+        public SignatureVisitor visitInterfaceBound() {
+            return this.visitBound();
+        }
+
+        private SignatureVisitor visitBound() {
+            this.typeParameters.append(this.hasBound ? " & " : " extends ");
+            this.hasBound = true;
+            return new TypeRenderer(this.typeParameters);
+        }
+
+        @Override
+        public SignatureVisitor visitSuperclass() {
+            final StringBuilder sb = new StringBuilder();
+            this.superClass = sb;
+            return new TypeRenderer(sb);
+        }
+
+        @Override
+        public SignatureVisitor visitInterface() {
+            final StringBuilder sb = new StringBuilder();
+            this.interfaces.add(sb);
+            return new TypeRenderer(sb);
+        }
+
+        @Override
+        public SignatureVisitor visitReturnType() {
+            this.returnType = new StringBuilder();
+            return new TypeRenderer(this.returnType);
+        }
+
+        @Override
+        public SignatureVisitor visitParameterType() {
+            // methods with parameters are never rendered
+            return new TypeRenderer(new StringBuilder());
+        }
+
+        @Override
+        public SignatureVisitor visitExceptionType() {
+            return new TypeRenderer(new StringBuilder());
+        }
+
+        private String renderTypeParameters() {
+            return this.typeParameters.length() == 0 ? "" : this.typeParameters + ">";
+        }
+
+        String renderClassDeclaration(boolean isInterface, boolean isEnum) {
+            final StringBuilder sb = new StringBuilder(this.renderTypeParameters());
+            final String strSuperClass = null == this.superClass ? null : this.superClass.toString();
+            // superclasses of enums and interfaces are implicit
+            if (!isInterface && !isEnum && null != strSuperClass && !strSuperClass.equals(Object.class.getTypeName())) {
+                sb.append(" extends ").append(strSuperClass);
+            }
+            if (!this.interfaces.isEmpty()) {
+                sb.append(isInterface ? " extends " : " implements ").append(Joiner.on(", ").join(this.interfaces));
+            }
+            return sb.toString();
+        }
+
+        String renderMethodDeclaration(String name) {
+            final String strTypeParameters = this.renderTypeParameters();
+            return (strTypeParameters.isEmpty() ? "" : strTypeParameters + " ") + this.returnType + " " + name + "();";
+        }
+    }
+
+    /**
+     * Renders a (generic) type from its signature, e.g. "java.util.List<? extends com.example.Item>"
+     */
+    private static final class TypeRenderer extends SignatureVisitor {
+
+        private final StringBuilder sb;
+        private int cntArrayDimensions;
+        private boolean hasTypeArguments;
+
+        TypeRenderer(StringBuilder sb) {
+            super(Opcodes.ASM5);
+            this.sb = sb;
+        }
+
+        @Override
+        public SignatureVisitor visitArrayType() {
+            this.cntArrayDimensions++;
+            return this;
+        }
+
+        @Override
+        public void visitBaseType(char descriptor) {
+            this.sb.append(Type.getType(String.valueOf(descriptor)).getClassName());
+            this.endType();
+        }
+
+        @Override
+        public void visitTypeVariable(String name) {
+            this.sb.append(name);
+            this.endType();
+        }
+
+        @Override
+        public void visitClassType(String name) {
+            this.sb.append(toSourceName(name));
+        }
+
+        @Override
+        public void visitInnerClassType(String name) {
+            this.closeTypeArguments();
+            this.sb.append('.').append(name);
+        }
+
+        @Override
+        public void visitTypeArgument() {
+            this.openTypeArgument();
+            this.sb.append('?');
+        }
+
+        @Override
+        public SignatureVisitor visitTypeArgument(char wildcard) {
+            this.openTypeArgument();
+            if (wildcard == SignatureVisitor.EXTENDS) {
+                this.sb.append("? extends ");
+            }
+            else if (wildcard == SignatureVisitor.SUPER) {
+                this.sb.append("? super ");
+            }
+            return new TypeRenderer(this.sb);
+        }
+
+        @Override
+        public void visitEnd() {
+            this.closeTypeArguments();
+            this.endType();
+        }
+
+        private void openTypeArgument() {
+            this.sb.append(this.hasTypeArguments ? ", " : "<");
+            this.hasTypeArguments = true;
+        }
+
+        private void closeTypeArguments() {
+            if (this.hasTypeArguments) {
+                this.sb.append('>');
+                this.hasTypeArguments = false;
+            }
+        }
+
+        private void endType() {
+            for (; this.cntArrayDimensions > 0; this.cntArrayDimensions--) {
+                this.sb.append("[]");
+            }
+        }
+    }
+
+    /**
+     * Renders an annotation with all its values, e.g. "@javax.xml.bind.annotation.XmlElement(name = "first_name")"
+     */
+    private static final class AnnotationRenderer extends AnnotationVisitor {
+
+        private final String type;
+        private final Consumer<String> consumer;
+        // map "name of property" <==> "rendered value"; NULL name is used for the values of an array
+        private final Map<String, String> values = Maps.newLinkedHashMap();
+        private final List<String> arrayValues = Lists.newArrayList();
+        private final boolean isArray;
+
+        AnnotationRenderer(String descriptor, Consumer<String> consumer) {
+            this(Type.getType(descriptor).getClassName().replace('$', '.'), consumer, false);
+        }
+
+        private AnnotationRenderer(String type, Consumer<String> consumer, boolean isArray) {
+            super(Opcodes.ASM5);
+            this.type = type;
+            this.consumer = consumer;
+            this.isArray = isArray;
+        }
+
+        private void add(String name, String value) {
+            if (this.isArray) {
+                this.arrayValues.add(value);
+            }
+            else {
+                this.values.put(name, value);
+            }
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            this.add(name, renderValue(value));
+        }
+
+        @Override
+        public void visitEnum(String name, String descriptor, String value) {
+            this.add(name, Type.getType(descriptor).getClassName().replace('$', '.') + "." + value);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+            return new AnnotationRenderer(descriptor, (value) -> this.add(name, value));
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return new AnnotationRenderer(null, (value) -> this.add(name, value), true);
+        }
+
+        @Override
+        public void visitEnd() {
+            if (this.isArray) {
+                this.consumer.accept("{" + Joiner.on(", ").join(this.arrayValues) + "}");
+            }
+            else if (this.values.isEmpty()) {
+                this.consumer.accept("@" + this.type);
+            }
+            else {
+                this.consumer.accept("@" + this.type + "(" + this.values.entrySet()
+                        .stream()
+                        .map((entry) -> entry.getKey() + " = " + entry.getValue())
+                        .collect(Collectors.joining(", ")) + ")");
+            }
+        }
+
+        private static String renderValue(Object value) {
+            if (value instanceof String) {
+                return "\"" + escape((String) value) + "\"";
+            }
+            if (value instanceof Character) {
+                return "'" + escape(value.toString()) + "'";
+            }
+            if (value instanceof Type) {
+                return ((Type) value).getClassName().replace('$', '.') + ".class";
+            }
+            if (value instanceof Long) {
+                return value + "L";
+            }
+            if (value instanceof Float) {
+                return value + "f";
+            }
+            if (value instanceof Double) {
+                return value + "d";
+            }
+            if (value.getClass().isArray()) {
+                // arrays of primitives are passed as a whole
+                final List<String> items = Lists.newArrayList();
+                for (int i = 0; i < java.lang.reflect.Array.getLength(value); i++) {
+                    items.add(renderValue(java.lang.reflect.Array.get(value, i)));
+                }
+                return "{" + Joiner.on(", ").join(items) + "}";
+            }
+            return value.toString();
+        }
+
+        private static String escape(String value) {
+            final StringBuilder sb = new StringBuilder(value.length());
+            for (char c : value.toCharArray()) {
+                switch (c) {
+                    case '"':  sb.append("\\\""); break;
+                    case '\'': sb.append("\\'"); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20 || c > 0x7e) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        }
+                        else {
+                            sb.append(c);
+                        }
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package net.pibenchmark;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Generated source file in UTF-8. A template is merged straight into a byte buffer of the current
+ * thread, without building a String, and the file is written only if its content differs from
+ * the existing one. Unchanged files keep their modification time, so javac and IDE indexers
+ * don't compile and index them again.
+ *
+ * Every worker thread has its own byte buffer, which is reused for all the files it renders. A writer is created
+ * per file, so that characters of a failed render never leak into the next file:
+ * <pre>
+ *     final GeneratedSource source = GeneratedSource.render((writer) -> template.merge(context, writer));
+ *     final boolean isWritten = source.writeTo(file);
+ * </pre>
+ */
+public final class GeneratedSource {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    private static final int COMPARE_CHUNK = 8 * 1024;
+
+    private static final ThreadLocal<GeneratedSource> BUFFERS = ThreadLocal.withInitial(GeneratedSource::new);
+
+    private final Buffer buffer = new Buffer();
+    private final ByteBuffer existingContent = ByteBuffer.allocate(COMPARE_CHUNK);
+
+    private GeneratedSource() {}
+
+    /**
+     * Renders a source into the buffer of the current thread. The result is valid until
+     * the next call of this method in the same thread
+     *
+     * @param renderer - writes the source, e.g. merges a template
+     * @return rendered source
+     * @throws IOException
+     */
+    public static GeneratedSource render(SourceRenderer renderer) throws IOException {
+        final GeneratedSource source = BUFFERS.get();
+        source.buffer.reset();
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(source.buffer, StandardCharsets.UTF_8));
+        renderer.render(writer);
+        writer.flush();
+        return source;
+    }
+
+    /**
+     * Renders a source and writes it to a file, if the content was changed
+     *
+     * @return TRUE if the file was written
+     * @throws IOException
+     */
+    public static boolean write(File file, SourceRenderer renderer) throws IOException {
+        return render(renderer).writeTo(file);
+    }
+
+    /**
+     * Returns the size of the rendered source in bytes
+     */
+    public int size() {
+        return this.buffer.size();
+    }
+
+    /**
+     * Writes the rendered source to a file, unless the file has exactly the same content
+     *
+     * @param file - target file
+     * @return TRUE if the file was written
+     * @throws IOException
+     */
+    public boolean writeTo(File file) throws IOException {
+        if (this.isContentOf(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer content = ByteBuffer.wrap(this.buffer.array(), 0, this.buffer.size());
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        }
+        return true;
+    }
+
+    private boolean isContentOf(File file) throws IOException {
+        if (!file.isFile() || file.length() != this.buffer.size()) {
+            return false;
+        }
+        final byte[] content = this.buffer.array();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int position = 0;
+            while (position < this.buffer.size()) {
+                this.existingContent.clear();
+                this.existingContent.limit(Math.min(COMPARE_CHUNK, this.buffer.size() - position));
+                final int cntRead = channel.read(this.existingContent);
+                if (cntRead <= 0) {
+                    return false;
+                }
+                for (int i = 0; i < cntRead; i++) {
+                    if (this.existingContent.get(i) != content[position + i]) {
+                        return false;
+                    }
+                }
+                position += cntRead;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes a generated source
+     */
+    @FunctionalInterface
+    public interface SourceRenderer {
+        void render(Writer writer) throws IOException;
+    }
+
+    /**
+     * Byte buffer, whose content can be read without copying
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(INITIAL_CAPACITY);
+        }
+
+        byte[] array() {
+            return this.buf;
+        }
+    }
+}
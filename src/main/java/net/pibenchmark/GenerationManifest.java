@@ -0,0 +1,161 @@
+package net.pibenchmark;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the hashes of all the inputs (stubs, templates and configuration) that were used
+ * during the previous generation. It allows to render again only those classes,
+ * whose inputs were changed since the last run.
+ *
+ * The manifest is stored as a properties file in the plugin output directory:
+ * <pre>
+ *     global=[hash of templates and configuration]
+ *     class.com.example.Candidate=[hash of all the stubs that Candidate depends on]
+ * </pre>
+ */
+public class GenerationManifest {
+
+    static final String FILE_NAME = "manifest.properties";
+
+    private static final String GLOBAL_KEY = "global";
+    private static final String CLASS_PREFIX = "class.";
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final File file;
+    private final Properties previous;
+    private final Properties current = new Properties();
+
+    // cache "source file" <==> "hash of its content". The same stub is referenced by many classes
+    private final Map<File, String> mapFileHashes = Maps.newConcurrentMap();
+
+    private GenerationManifest(File file, Properties previous) {
+        this.file = file;
+        this.previous = previous;
+    }
+
+    /**
+     * Reads the manifest from a given directory. If it doesn't exist yet, then
+     * the empty one is returned, so that all the classes will be treated as changed.
+     *
+     * @param directory - plugin output directory
+     * @return manifest
+     * @throws MojoFailureException
+     */
+    public static GenerationManifest load(File directory) throws MojoFailureException {
+        final File file = new File(directory, FILE_NAME);
+        final Properties previous = new Properties();
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                previous.load(in);
+            } catch (IOException e) {
+                throw new MojoFailureException("Can not read the manifest " + file.getAbsolutePath() + ": " + e.getMessage());
+            }
+        }
+        return new GenerationManifest(file, previous);
+    }
+
+    /**
+     * Registers the hash of everything that affects all the generated classes at once:
+     * content of templates and the plugin configuration.
+     *
+     * @param templates - names of templates on the classpath
+     * @param configuration - string representation of the plugin configuration
+     * @throws MojoFailureException
+     */
+    public void registerGlobalInputs(Collection<String> templates, String configuration) throws MojoFailureException {
+        final Hasher hasher = HASH_FUNCTION.newHasher().putString(configuration, Charsets.UTF_8);
+        for (String template : templates) {
+            try {
+                hasher.putBytes(Resources.toByteArray(Resources.getResource(GenerationManifest.class, "/" + template)));
+            } catch (IOException e) {
+                throw new MojoFailureException("Can not read the template " + template + ": " + e.getMessage());
+            }
+        }
+        current.setProperty(GLOBAL_KEY, hasher.hash().toString());
+    }
+
+    /**
+     * Registers the hash of all the source files, that a given class depends on.
+     *
+     * @param className - FQN of top-level stub class
+     * @param sourceFiles - see {@link BuildHelper#collectSourceFiles}
+     * @throws MojoFailureException
+     */
+    public void registerClass(String className, Collection<File> sourceFiles) throws MojoFailureException {
+        final Hasher hasher = HASH_FUNCTION.newHasher();
+        for (File sourceFile : sourceFiles) {
+            hasher.putString(sourceFile.getAbsolutePath(), Charsets.UTF_8)
+                    .putString(this.hashOf(sourceFile), Charsets.UTF_8);
+        }
+        current.setProperty(CLASS_PREFIX + className, hasher.hash().toString());
+    }
+
+    /**
+     * Returns TRUE if neither the class inputs nor the global inputs were changed since the previous run
+     *
+     * @param className - FQN of top-level stub class
+     */
+    public boolean isUpToDate(String className) {
+        final String key = CLASS_PREFIX + className;
+        return current.getProperty(GLOBAL_KEY).equals(previous.getProperty(GLOBAL_KEY))
+                && current.getProperty(key) != null
+                && current.getProperty(key).equals(previous.getProperty(key));
+    }
+
+    /**
+     * Returns the set of classes that were generated previously, but whose stubs do not exist anymore
+     */
+    public Set<String> getRemovedClasses() {
+        return previous.stringPropertyNames()
+                .stream()
+                .filter((key) -> key.startsWith(CLASS_PREFIX) && !current.containsKey(key))
+                .map((key) -> key.substring(CLASS_PREFIX.length()))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Write down the current state, so that the next run can compare against it
+     *
+     * @throws MojoFailureException
+     */
+    public void save() throws MojoFailureException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            current.store(out, "generated by soap-to-jpa Maven plugin. DO NOT MODIFY!");
+        } catch (IOException e) {
+            throw new MojoFailureException("Can not write the manifest " + file.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    private String hashOf(File sourceFile) throws MojoFailureException {
+        String hash = mapFileHashes.get(sourceFile);
+        if (null == hash) {
+            try {
+                hash = Files.hash(sourceFile, HASH_FUNCTION).toString();
+            } catch (IOException e) {
+                throw new MojoFailureException("Can not read the stub " + sourceFile.getAbsolutePath() + ": " + e.getMessage());
+            }
+            mapFileHashes.put(sourceFile, hash);
+        }
+        return hash;
+    }
+}
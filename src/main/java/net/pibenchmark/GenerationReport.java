@@ -0,0 +1,266 @@
+package net.pibenchmark;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the timings of one generation: time of every phase, and render time, write time and
+ * size of every generated file. It is written as a JSON report, so that the stubs blowing up
+ * the build time can be found:
+ * <pre>
+ *     {
+ *       "totalMillis": 5120.00,
+ *       "phases": {"parse": 830.00, "model": 410.00, "jpaRender": 2300.00, ...},
+ *       "classes": [
+ *         {"name": "com.example.Candidate", "totalMillis": 310.00, "modelMillis": 40.00,
+ *          "jpa": {"renderMillis": 180.00, "writeMillis": 3.00, "bytes": 91234},
+ *          "fields": {"renderMillis": 90.00, "writeMillis": 1.00, "bytes": 30120}},
+ *         ...
+ *       ]
+ *     }
+ * </pre>
+ * Classes are sorted from the slowest one. Writing is interleaved with rendering on several workers,
+ * thus the "write" phase is a sum over all the workers, while the other phases are wall times.
+ * The "model" phase includes the models of all the classes, that are reported per class as well.
+ */
+public class GenerationReport {
+
+    static final String PHASE_PARSE = "parse";
+    static final String PHASE_MODEL = "model";
+    static final String PHASE_JPA = "jpaRender";
+    static final String PHASE_FIELDS = "fieldsRender";
+    static final String PHASE_FACTORY = "factory";
+    static final String PHASE_WRITE = "write";
+
+    // phases in the order of execution
+    static final List<String> PHASES = ImmutableList.of(PHASE_PARSE, PHASE_MODEL, PHASE_JPA, PHASE_FIELDS, PHASE_FACTORY, PHASE_WRITE);
+
+    // kinds of generated files
+    static final String KIND_JPA = "jpa";
+    static final String KIND_FIELDS = "fields";
+
+    private final long startNanos = System.nanoTime();
+    private long totalNanos;
+
+    // map "phase" <==> "spent nanoseconds"
+    private final ConcurrentMap<String, AtomicLong> mapOfPhases = new ConcurrentHashMap<>();
+
+    // map "FQN of top-level stub" <==> "its timings"
+    private final ConcurrentMap<String, ClassTimings> mapOfClasses = new ConcurrentHashMap<>();
+
+    /**
+     * Adds time to a phase. Can be called by several workers
+     *
+     * @param phase - one of {@link #PHASES}
+     * @param nanos - spent time
+     */
+    public void addPhaseTime(String phase, long nanos) {
+        this.mapOfPhases.computeIfAbsent(phase, (key) -> new AtomicLong()).addAndGet(nanos);
+    }
+
+    /**
+     * Adds time of building the field model to a class. It is not added to the "model" phase,
+     * because the phase is measured as a whole
+     *
+     * @param className - FQN of top-level stub, the model is built for
+     * @param nanos - spent time
+     */
+    public void addModelTime(String className, long nanos) {
+        this.mapOfClasses.compute(className, (key, timings) -> {
+            final ClassTimings result = null == timings ? new ClassTimings(key) : timings;
+            result.modelNanos += nanos;
+            return result;
+        });
+    }
+
+    /**
+     * Registers a generated file of a class. Write time is added to the "write" phase as well
+     *
+     * @param className - FQN of top-level stub
+     * @param kind - {@link #KIND_JPA} or {@link #KIND_FIELDS}
+     * @param renderNanos - time of rendering
+     * @param writeNanos - time of writing the file
+     * @param bytes - size of the file
+     */
+    public void addFile(String className, String kind, long renderNanos, long writeNanos, long bytes) {
+        this.addPhaseTime(PHASE_WRITE, writeNanos);
+        this.mapOfClasses.compute(className, (key, timings) -> {
+            final ClassTimings result = null == timings ? new ClassTimings(key) : timings;
+            final FileTimings file = new FileTimings(renderNanos, writeNanos, bytes);
+            if (KIND_JPA.equals(kind)) {
+                result.jpa = file;
+            }
+            else {
+                result.fields = file;
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Stops the clock of the whole generation
+     */
+    public void finish() {
+        this.totalNanos = System.nanoTime() - this.startNanos;
+    }
+
+    /**
+     * Returns the classes sorted from the slowest one
+     *
+     * @param limit - max number of classes
+     */
+    public List<ClassTimings> getSlowestClasses(int limit) {
+        return this.mapOfClasses.values()
+                .stream()
+                .sorted(Comparator.comparingLong(ClassTimings::getTotalNanos).reversed()
+                        .thenComparing(ClassTimings::getName))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns one line with the time of every phase, e.g. "parse 830 ms, model 410 ms, ..."
+     */
+    public String describePhases() {
+        return PHASES.stream()
+                .map((phase) -> phase + " " + millis(this.getPhaseNanos(phase)) + " ms")
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Writes the report as JSON
+     *
+     * @param file - report file, its directory is created if needed
+     * @throws MojoFailureException
+     */
+    public void write(File file) throws MojoFailureException {
+        try {
+            Files.createParentDirs(file);
+            Files.write(this.toJson(), file, Charsets.UTF_8);
+        } catch (IOException e) {
+            throw new MojoFailureException("Can not write the generation report " + file.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    String toJson() {
+        final StringBuilder sb = new StringBuilder(256 + 256 * this.mapOfClasses.size());
+        sb.append("{\n  \"totalMillis\": ").append(millis(this.totalNanos)).append(",\n  \"phases\": {");
+        for (int i = 0; i < PHASES.size(); i++) {
+            sb.append(i == 0 ? "" : ", ")
+                    .append('"').append(PHASES.get(i)).append("\": ")
+                    .append(millis(this.getPhaseNanos(PHASES.get(i))));
+        }
+        sb.append("},\n  \"classes\": [");
+        final List<ClassTimings> classes = this.getSlowestClasses(Integer.MAX_VALUE);
+        for (int i = 0; i < classes.size(); i++) {
+            final ClassTimings timings = classes.get(i);
+            sb.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"name\": \"").append(escape(timings.getName()))
+                    .append("\", \"totalMillis\": ").append(millis(timings.getTotalNanos()))
+                    .append(", \"modelMillis\": ").append(millis(timings.modelNanos));
+            appendFile(sb, KIND_JPA, timings.jpa);
+            appendFile(sb, KIND_FIELDS, timings.fields);
+            sb.append('}');
+        }
+        sb.append(classes.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        return sb.toString();
+    }
+
+    private long getPhaseNanos(String phase) {
+        final AtomicLong nanos = this.mapOfPhases.get(phase);
+        return null == nanos ? 0 : nanos.get();
+    }
+
+    private static void appendFile(StringBuilder sb, String kind, FileTimings file) {
+        if (null != file) {
+            sb.append(", \"").append(kind).append("\": {\"renderMillis\": ").append(millis(file.renderNanos))
+                    .append(", \"writeMillis\": ").append(millis(file.writeNanos))
+                    .append(", \"bytes\": ").append(file.bytes).append('}');
+        }
+    }
+
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Timings of one top-level stub: its model and generated files
+     */
+    public static final class ClassTimings {
+
+        private final String name;
+        private long modelNanos;
+        private FileTimings jpa;
+        private FileTimings fields;
+
+        private ClassTimings(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Render and write time of all the files of the class. Model is a part of render time
+         */
+        public long getTotalNanos() {
+            long total = 0;
+            for (FileTimings file : new FileTimings[]{this.jpa, this.fields}) {
+                if (null != file) {
+                    total += file.renderNanos + file.writeNanos;
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Returns the line for the log, e.g. "com.example.Candidate: 310 ms (model 40 ms, JPA 183 ms / 91234 bytes, ...)"
+         */
+        public String describe() {
+            final StringBuilder sb = new StringBuilder(name)
+                    .append(": ").append(millis(this.getTotalNanos())).append(" ms (model ")
+                    .append(millis(this.modelNanos)).append(" ms");
+            if (null != this.jpa) {
+                sb.append(", JPA ").append(this.jpa.describe());
+            }
+            if (null != this.fields) {
+                sb.append(", Fields ").append(this.fields.describe());
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    private static final class FileTimings {
+
+        private final long renderNanos;
+        private final long writeNanos;
+        private final long bytes;
+
+        private FileTimings(long renderNanos, long writeNanos, long bytes) {
+            this.renderNanos = renderNanos;
+            this.writeNanos = writeNanos;
+            this.bytes = bytes;
+        }
+
+        private String describe() {
+            return millis(this.renderNanos + this.writeNanos) + " ms / " + this.bytes + " bytes";
+        }
+    }
+}
@@ -9,7 +9,6 @@ import com.thoughtworks.qdox.model.impl.DefaultJavaClass;
 import net.pibenchmark.pojo.FieldType;
 import net.pibenchmark.pojo.InnerClass;
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.time.DateFormatUtils;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -19,17 +18,21 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Settings;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
-import org.apache.velocity.runtime.RuntimeConstants;
-import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
 import org.apache.velocity.tools.generic.DisplayTool;
 import org.apache.velocity.tools.generic.SortTool;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Mojo( name = "soap-to-jpa")
@@ -51,51 +54,178 @@ public class SoapToJpaMojo extends AbstractMojo {
     private Settings settings;
 
     // where the generated SOAP stubs can be found
-    @Parameter( defaultValue = "${project.build.directory}/generated-sources/axis2/wsdl2code/src", readonly = true )
+    @Parameter( defaultValue = "${project.build.directory}/generated-sources/axis2/wsdl2code/src" )
     private File generatedSoapStubsDir;
 
     @Parameter( defaultValue = "${project.build.directory}", readonly = true )
     private File target;
 
-    @Parameter( defaultValue = "org.apache.maven.soap.jpa.factory", readonly = true )
+    // where the model of stubs is built from: "sources" (generatedSoapStubsDir) or "bytecode" (compiledSoapStubs)
+    @Parameter( defaultValue = "sources" )
+    private String stubModelSource;
+
+    // directory or JAR with the compiled SOAP stubs. Required when stubModelSource is "bytecode"
+    @Parameter
+    private File compiledSoapStubs;
+
+    // patterns of fully qualified names of stub classes, nested classes are separated with dots.
+    // "**" matches any part of a name, "*" matches any part between two dots
+    @Parameter( defaultValue = "**" )
+    private String[] stubIncludes;
+
+    // patterns of classes, that are not stubs, e.g. JAXB "ObjectFactory" or Axis2 nested "Factory" classes
+    @Parameter( defaultValue = "**Factory,**Impl" )
+    private String[] stubExcludes;
+
+    // package of JPAEntitiesFactory, its chunks and the ingestion runner
+    @Parameter( defaultValue = "org.apache.maven.soap.jpa.factory" )
     private String factoryPackageName;
 
-    @Parameter( defaultValue = "org.apache.maven.soap.jpa.fields", readonly = true )
+    // package of the Fields classes and of the shared interfaces
+    @Parameter( defaultValue = "org.apache.maven.soap.jpa.fields" )
     private String fieldsPackageName;
 
-    @Parameter( defaultValue = "id", readonly = true )
+    // name and type of the field, that is treated as the unique ID of a stub
+    @Parameter( defaultValue = "id" )
     private String fieldNameUsedAsIdentityName;
 
-    @Parameter( defaultValue = "java.lang.Long", readonly = true )
+    @Parameter( defaultValue = "java.lang.Long" )
     private String fieldNameUsedAsIdentityType;
 
-    @Parameter( defaultValue = "SOAP", readonly = true )
+    // prefix of table names, to avoid reserved words
+    @Parameter( defaultValue = "SOAP" )
     private String tableNamePrefix;
 
-    // The set of postfixes. If a class has this part in its name, then this file will be ignored
-    private final Set<String> setForbiddenNames = ImmutableSet.of("ObjectFactory", "Factory", "Impl");
+    // max number of identities in one "IN (...)" query, used to load existing items of a collection
+    @Parameter( defaultValue = "500" )
+    private int identityLookupChunkSize;
+
+    // average number of stubs in one chunk of the factory. Every chunk is a small class, loaded on demand
+    @Parameter( defaultValue = "100" )
+    private int factoryChunkSize;
+
+    // patterns of hot stubs, whose Fields classes are loaded by JPAEntitiesFactory.preload() at the startup of a service.
+    // The syntax is the same as in "stubIncludes". Other Fields classes are loaded on the first request of their stubs
+    @Parameter
+    private String[] factoryPreloadStubs;
+
+    // keep a fingerprint of the stub in every entity and skip populate() if an incoming stub has the same fingerprint
+    @Parameter( defaultValue = "false" )
+    private boolean stubFingerprint;
+
+    // render only the classes whose stubs (or templates, or configuration) were changed since the previous run
+    @Parameter( defaultValue = "false" )
+    private boolean incremental;
+
+    // number of workers rendering JPA and Fields classes
+    @Parameter( defaultValue = "1" )
+    private int threads;
+
+    // JSON report with timings of the generation phases and of every rendered class. Empty value disables the report
+    @Parameter( defaultValue = "${project.build.directory}/soap-to-jpa-report.json" )
+    private File generationReport;
+
+    // number of the slowest classes to log after the generation
+    @Parameter( defaultValue = "10" )
+    private int slowestClassesToLog;
+
+    // date of @Generated annotations: ISO 8601 or seconds since the epoch. If empty, the date is omitted
+    @Parameter( defaultValue = "${project.build.outputTimestamp}" )
+    private String outputTimestamp;
 
     private JavaProjectBuilder builder;
+    // returns TRUE for a FQN of a stub class, according to stubIncludes and stubExcludes
+    private Predicate<String> isStubName;
+    // all the stub classes of the model, including nested ones
+    private List<JavaClass> stubClasses;
     private File jpaOutputDirectory;
+    private GenerationManifest manifest;
+    private GenerationReport report;
+    // generation date in ISO 8601 standard
+    private String generationDate;
+
+    // QDox resolves the model lazily and caches it in non-synchronized maps,
+    // so that all the workers have to access it one by one
+    private final Object modelLock = new Object();
+
+    // map "FQN of stub class" <==> "immutable map 'field name' <==> 'field type'". It is filled before the workers
+    // start and only read by them, see buildFieldModels(). Shared by JPA and Fields passes
+    private final Map<String, Map<String, FieldType>> mapOfFieldModels = Maps.newHashMap();
 
     // for the compilation performance, one factory can not contain more than this value of iterations
     private static final String JPA_SUFFIX = "JPA";
     private static final String FIELDS_SUFFIX = "Fields";
-    // generation date in ISO 8601 standard
-    private static final String generationDate = DateFormatUtils.ISO_DATETIME_TIME_ZONE_FORMAT.format(new Date());
+    private static final String UDF_PARENT_CLASS = "UDFValueMapping";
+    // values of the parameter "stubModelSource"
+    private static final String MODEL_SOURCE_SOURCES = "sources";
+    private static final String MODEL_SOURCE_BYTECODE = "bytecode";
+    // all the templates, including parsed ones. Used to detect whether generated code should be rendered again
+    static final List<String> TEMPLATES = ImmutableList.of("JpaEntityTemplate.vm", "FactoryTemplate.vm", "FactoryChunkTemplate.vm",
+            "FieldsTemplate.vm", "FieldsInterface.vm", "JPAInterface.vm", "IdAccumulator.vm", "UDFValueMapping.vm", "Populate.vm",
+            "CastField.vm", "ParsedIdentField.vm", "IdType.vm", "Fingerprint.vm", "IngestionRunner.vm");
 
     /**
      * Perform some initial stuff for the plugin
      */
-    private void setUpPlugin() {
+    private void setUpPlugin() throws MojoFailureException {
         this.builder = new JavaProjectBuilder();
         this.jpaOutputDirectory = BuildHelper.ensureOutputDirExists(this.target.getAbsolutePath());
-        builder.addSourceFolder(this.jpaOutputDirectory);
-        builder.addSourceTree(this.generatedSoapStubsDir);
+        this.generationDate = BuildHelper.formatGenerationDate(this.outputTimestamp);
+        if (this.factoryChunkSize < 1) {
+            throw new MojoFailureException("factoryChunkSize should be positive, but it is " + this.factoryChunkSize);
+        }
+
+        final Pattern includes = BuildHelper.compileClassNamePatterns(this.stubIncludes);
+        final Pattern excludes = BuildHelper.compileClassNamePatterns(this.stubExcludes);
+        this.isStubName = (className) -> includes.matcher(className).matches() && !excludes.matcher(className).matches();
 
         getLog().info("Directory for generated JPA files: " + this.jpaOutputDirectory.getAbsolutePath());
-        getLog().info("Generated SOAP files will be searched from the directory: " + this.generatedSoapStubsDir.getAbsolutePath());
+
+        if (MODEL_SOURCE_BYTECODE.equals(this.stubModelSource)) {
+            if (null == this.compiledSoapStubs || !this.compiledSoapStubs.exists()) {
+                throw new MojoFailureException("compiledSoapStubs should point to an existing directory or JAR with compiled SOAP stubs, "
+                        + "when stubModelSource is '" + MODEL_SOURCE_BYTECODE + "', but it is " + this.compiledSoapStubs);
+            }
+            final int cntClasses;
+            try {
+                // skip the compiled classes generated by this plugin, if they are in the same place
+                cntClasses = BytecodeStubReader.addStubClasses(this.compiledSoapStubs, builder, this.isStubName, (className) ->
+                        className.startsWith(this.factoryPackageName + ".")
+                                || className.startsWith(this.fieldsPackageName + ".")
+                                || className.endsWith("." + UDF_PARENT_CLASS));
+            }
+            catch (IOException e) {
+                throw new MojoFailureException("Can not read compiled SOAP stubs from " + this.compiledSoapStubs, e);
+            }
+            // e.g. the stubs are not compiled yet. Generating nothing would delete the previous output in the incremental mode
+            if (0 == cntClasses) {
+                throw new MojoFailureException("No compiled SOAP stubs were found in " + this.compiledSoapStubs.getAbsolutePath()
+                        + ". Check compiledSoapStubs, stubIncludes and the phase of the plugin execution");
+            }
+            getLog().info(cntClasses + " compiled SOAP stubs were read from: " + this.compiledSoapStubs.getAbsolutePath());
+        }
+        else if (MODEL_SOURCE_SOURCES.equals(this.stubModelSource)) {
+            getLog().info("Generated SOAP files will be searched from the directory: " + this.generatedSoapStubsDir.getAbsolutePath());
+            try {
+                final int cntFiles = BuildHelper.addStubSources(this.generatedSoapStubsDir, builder, this.isStubName);
+                getLog().info(cntFiles + " SOAP stub files were parsed");
+            }
+            catch (IOException e) {
+                throw new MojoFailureException("Can not read SOAP stubs from " + this.generatedSoapStubsDir, e);
+            }
+            // excluded classes are parsed only if a stub refers to them, e.g. as to a parent class
+            builder.addSourceFolder(this.generatedSoapStubsDir);
+        }
+        else {
+            throw new MojoFailureException("Unknown stubModelSource '" + this.stubModelSource + "'. Expected '"
+                    + MODEL_SOURCE_SOURCES + "' or '" + MODEL_SOURCE_BYTECODE + "'");
+        }
         getLog().info("Factory will be placed to the package: " + this.factoryPackageName);
+
+        this.stubClasses = builder.getClasses()
+                .stream()
+                .filter((jc) -> this.isStubName.test(jc.getCanonicalName()))
+                .collect(Collectors.toList());
     }
 
 
@@ -105,67 +235,182 @@ public class SoapToJpaMojo extends AbstractMojo {
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
 
+        this.report = new GenerationReport();
+        long phaseStarted = System.nanoTime();
         this.setUpPlugin();
-
-        VelocityEngine ve = this.setUpVelocity();
-
-        Template jpaTemplate = ve.getTemplate("JpaEntityTemplate.vm");
-        Template factoryTemplate = ve.getTemplate("FactoryTemplate.vm");
-        Template fieldsTemplate = ve.getTemplate("FieldsTemplate.vm");
-        Template fieldProviderTemplate = ve.getTemplate("FieldsInterface.vm");
-        Template jpaStubTemplate = ve.getTemplate("JPAInterface.vm");
-        Template udfParent = ve.getTemplate("UDFValueMapping.vm");
+        this.report.addPhaseTime(GenerationReport.PHASE_PARSE, System.nanoTime() - phaseStarted);
+
+        // parsed once per build, see VelocityTemplates
+        Template jpaTemplate = VelocityTemplates.get("JpaEntityTemplate.vm");
+        Template factoryTemplate = VelocityTemplates.get("FactoryTemplate.vm");
+        Template factoryChunkTemplate = VelocityTemplates.get("FactoryChunkTemplate.vm");
+        Template fieldsTemplate = VelocityTemplates.get("FieldsTemplate.vm");
+        Template fieldProviderTemplate = VelocityTemplates.get("FieldsInterface.vm");
+        Template jpaStubTemplate = VelocityTemplates.get("JPAInterface.vm");
+        Template idAccumulatorTemplate = VelocityTemplates.get("IdAccumulator.vm");
+        Template ingestionRunnerTemplate = VelocityTemplates.get("IngestionRunner.vm");
+        Template udfParent = VelocityTemplates.get("UDFValueMapping.vm");
 
         try {
 
+            phaseStarted = System.nanoTime();
+
             // collect all interfaces to map "full stub name" <==> "fully qualified JPA name"
-            final Map<String, String> mapInterfaces = builder.getClasses()
+            final Map<String, String> mapInterfaces = this.stubClasses
                     .stream()
                    /* .filter( (jc) -> jc.isInterface() ) */
-                    .filter((jc) -> !jc.getName().endsWith("Factory") && !jc.getName().endsWith("Impl") && !jc.getName().endsWith("ObjectFactory"))
                     .collect(Collectors.toMap(
                             JavaClass::getCanonicalName,
                             jc -> BuildHelper.getQualifiedName(jc).replace("$", "JPA.") + "JPA"));
 
+            if (this.incremental) {
+                this.manifest = this.buildManifest();
+            }
+
             // map "JPA class name" <==> "Set<full interface name>"
             final Map<String, Set<String>> mapOfConstructors = this.buildMapOfConstructors(mapInterfaces);
 
             // Map "soap interface/class" <==> "Fields file"
             final Map<String, String> mapOfFieldFiles = this.buildMapOfFieldProviders();
 
+            // resolve the fields of all the classes to render, before the workers start
+            this.buildFieldModels(mapInterfaces);
+            this.report.addPhaseTime(GenerationReport.PHASE_MODEL, System.nanoTime() - phaseStarted);
+
             // write all the JPA classes
+            phaseStarted = System.nanoTime();
             this.generateJpaClasses(jpaTemplate, udfParent, mapInterfaces, mapOfConstructors);
+            this.report.addPhaseTime(GenerationReport.PHASE_JPA, System.nanoTime() - phaseStarted);
 
             // write the Field providers
+            phaseStarted = System.nanoTime();
             this.generateFieldProviders(fieldsTemplate, mapInterfaces, mapOfFieldFiles);
+            this.report.addPhaseTime(GenerationReport.PHASE_FIELDS, System.nanoTime() - phaseStarted);
 
             // write the Factory class
-            this.generateFactory(factoryTemplate, mapOfFieldFiles);
+            phaseStarted = System.nanoTime();
+            this.generateFactory(factoryTemplate, factoryChunkTemplate, mapOfFieldFiles);
 
             // write IFieldProvider interface
             this.generateFieldProviderInterface(fieldProviderTemplate);
 
             // write IJpaStub interface
             this.generateJpaStubInterface(jpaStubTemplate);
+
+            // write IdAccumulator class
+            this.generateIdAccumulator(idAccumulatorTemplate);
+
+            // write JPAEntitiesIngestionRunner class
+            this.generateIngestionRunner(ingestionRunnerTemplate);
+            this.report.addPhaseTime(GenerationReport.PHASE_FACTORY, System.nanoTime() - phaseStarted);
+
+            if (this.incremental) {
+                this.deleteFilesOfRemovedStubs();
+                this.manifest.save();
+            }
         }
         catch (Exception e) {
             throw new MojoFailureException(e.getMessage());
         }
 
+        this.report.finish();
+        this.logReport();
+    }
+
+    /**
+     * Logs the phase timings and the slowest classes, and writes the JSON report
+     */
+    private void logReport() throws MojoFailureException {
+        getLog().info("Generation phases: " + this.report.describePhases());
+
+        final List<GenerationReport.ClassTimings> slowestClasses = this.report.getSlowestClasses(this.slowestClassesToLog);
+        if (!slowestClasses.isEmpty()) {
+            getLog().info("The slowest classes:");
+            slowestClasses.forEach((timings) -> getLog().info("  " + timings.describe()));
+        }
+
+        if (null != this.generationReport) {
+            this.report.write(this.generationReport);
+            getLog().info("Generation report was written to: " + this.generationReport.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Read the manifest of the previous run and register the current hashes of all the top-level stubs
+     *
+     * @return manifest
+     * @throws MojoFailureException
+     */
+    private GenerationManifest buildManifest() throws MojoFailureException {
+        final GenerationManifest manifest = GenerationManifest.load(this.jpaOutputDirectory.getParentFile());
+
+        manifest.registerGlobalInputs(TEMPLATES, StringUtils.join(new Object[]{
+                this.factoryPackageName,
+                this.fieldsPackageName,
+                this.fieldNameUsedAsIdentityName,
+                this.fieldNameUsedAsIdentityType,
+                this.tableNamePrefix,
+                this.identityLookupChunkSize,
+                this.stubFingerprint,
+                this.stubModelSource,
+                this.compiledSoapStubs,
+                this.outputTimestamp,
+                StringUtils.join(this.stubIncludes, ","),
+                StringUtils.join(this.stubExcludes, ",")}, ";"));
+
+        // a class is rendered again, when a stub extending it (or any type it references) is added or changed
+        final Multimap<String, JavaClass> mapSubclasses = BuildHelper.buildMapOfSubclasses(this.stubClasses);
+        for (JavaClass jc : this.stubClasses) {
+            if (!jc.isInner()) {
+                manifest.registerClass(jc.getFullyQualifiedName(), BuildHelper.collectSourceFiles(jc, this.builder, mapSubclasses));
+            }
+        }
+        return manifest;
     }
 
     /**
-     * Collect map "full name if Soap stub" <=> "full name of according Fields provider"
+     * Checks whether a generated file can be left as it is. Without incremental mode
+     * an existing file is never rendered again.
+     *
+     * @param jc - top-level stub class
+     * @param file - generated file
+     */
+    private boolean isUpToDate(JavaClass jc, File file) {
+        return file.exists() && (!this.incremental || this.manifest.isUpToDate(jc.getFullyQualifiedName()));
+    }
+
+    /**
+     * Remove JPA and Fields files, generated for the stubs that do not exist anymore
+     */
+    private void deleteFilesOfRemovedStubs() throws IOException {
+        for (String className : this.manifest.getRemovedClasses()) {
+            final String packageName = className.contains(".") ? className.substring(0, className.lastIndexOf('.')) : "";
+            final String simpleName = className.substring(className.lastIndexOf('.') + 1);
+            final String packagePath = this.jpaOutputDirectory.getAbsolutePath() + File.separator + packageName.replace(".", File.separator);
+
+            for (String suffix : ImmutableList.of(JPA_SUFFIX, FIELDS_SUFFIX)) {
+                final File file = BuildHelper.getFile(packagePath, simpleName, suffix);
+                if (file.exists() && file.delete()) {
+                    getLog().info("Stub " + className + " was removed, thus the file " + file.getName() + " was deleted");
+                }
+            }
+        }
+    }
+
+    /**
+     * Collect map "full name if Soap stub" <=> "full name of according Fields provider".
+     * The map is sorted, so the factory does not depend on the order of parsed files
      *
      * @return map
      */
     private Map<String, String> buildMapOfFieldProviders() {
-        return builder.getClasses()
+        return this.stubClasses
                 .parallelStream()
-                .filter((jc) -> !setForbiddenNames.stream().anyMatch((forbiddenName) -> jc.getName().endsWith(forbiddenName)))
                 .collect(
                         Collectors.toMap(JavaClass::getCanonicalName,
-                        jc -> jc.getFullyQualifiedName().replace("$", "Fields.") + "Fields"));
+                        jc -> jc.getFullyQualifiedName().replace("$", "Fields.") + "Fields",
+                        (first, second) -> first,
+                        TreeMap::new));
     }
 
     /**
@@ -184,10 +429,7 @@ public class SoapToJpaMojo extends AbstractMojo {
         context.put("generationDate", generationDate);
         context.put("identityFieldType", this.fieldNameUsedAsIdentityType);
 
-        StringWriter writer = new StringWriter();
-        t.merge( context, writer );
-
-        BuildHelper.writeContentToFile(writer.toString(), file);
+        GeneratedSource.write(file, (writer) -> t.merge(context, writer));
     }
 
     /**
@@ -207,23 +449,56 @@ public class SoapToJpaMojo extends AbstractMojo {
         context.put("identityFieldType", this.fieldNameUsedAsIdentityType);
         context.put("identityFieldName", this.fieldNameUsedAsIdentityName);
         context.put("display", new DisplayTool());
+        context.put("stubFingerprint", this.stubFingerprint);
 
-        StringWriter writer = new StringWriter();
-        t.merge( context, writer );
+        GeneratedSource.write(file, (writer) -> t.merge(context, writer));
+    }
 
-        BuildHelper.writeContentToFile(writer.toString(), file);
+    /**
+     * Create accumulator of IDs of empty entities. Every top-level stub gets an ordinal,
+     * that is resolved by JPA class at runtime, so JPA classes don't depend on the list of stubs
+     *
+     * @param t
+     * @throws MojoFailureException
+     */
+    private void generateIdAccumulator(Template t) throws MojoFailureException, IOException {
+
+        final String packagePath = BuildHelper.ensurePackageExists(this.jpaOutputDirectory.getAbsolutePath(), this.fieldsPackageName);
+
+        final List<String> entityNames = this.stubClasses
+                .stream()
+                .filter((jc) -> !jc.isInner())
+                .map(JavaClass::getFullyQualifiedName)
+                .sorted()
+                .collect(Collectors.toList());
+
+        File file = BuildHelper.getFile(packagePath, "IdAccumulator", "");
+        VelocityContext context = new VelocityContext();
+        context.put("package", fieldsPackageName);
+        context.put("generationDate", generationDate);
+        context.put("identityFieldType", this.fieldNameUsedAsIdentityType);
+        context.put("entityNames", entityNames);
+
+        GeneratedSource.write(file, (writer) -> t.merge(context, writer));
     }
 
     /**
-     * Set up Apache Velocity template engine
-     * @return
+     * Create the runner, that ingests stubs in parallel by JPAEntitiesFactory. It is placed next to the factory
+     *
+     * @param t
+     * @throws MojoFailureException
      */
-    private VelocityEngine setUpVelocity() {
-        VelocityEngine ve = new VelocityEngine();
-        ve.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-        ve.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-        ve.init();
-        return ve;
+    private void generateIngestionRunner(Template t) throws MojoFailureException, IOException {
+
+        final String packagePath = BuildHelper.ensurePackageExists(this.jpaOutputDirectory.getAbsolutePath(), this.factoryPackageName);
+
+        File file = BuildHelper.getFile(packagePath, "JPAEntitiesIngestionRunner", "");
+        VelocityContext context = new VelocityContext();
+        context.put("package", factoryPackageName);
+        context.put("fieldsPackage", this.fieldsPackageName);
+        context.put("generationDate", generationDate);
+
+        GeneratedSource.write(file, (writer) -> t.merge(context, writer));
     }
 
     /**
@@ -255,31 +530,85 @@ public class SoapToJpaMojo extends AbstractMojo {
      */
     private void generateFieldProviders(Template fieldsTemplate, Map<String, String> mapOfInterfaces, Map<String, String> mapOfFieldFiles) throws IOException, MojoFailureException {
         getLog().info("Generation of the Field Provider classes...");
-        int cntCreatedFiles = 0;
-        int cntSkippedFiles = 0;
 
-        for (JavaClass jc : builder.getClasses()) {
-            final boolean classNameShouldBeSkipped = setForbiddenNames.stream().anyMatch((forbiddenName) -> jc.getName().endsWith(forbiddenName));
-            if (!jc.isInner() && !classNameShouldBeSkipped) {
+        final List<JavaClass> classes = this.stubClasses
+                .stream()
+                .filter((jc) -> !jc.isInner())
+                .collect(Collectors.toList());
 
-                final String packagePath = BuildHelper.ensurePackageExists(this.jpaOutputDirectory.getAbsolutePath(), jc.getPackageName());
+        final int cntCreatedFiles = this.renderClasses(classes, (jc) -> {
 
-                File file = BuildHelper.getFile(packagePath, jc.getName(), FIELDS_SUFFIX);
+            final String packagePath = BuildHelper.ensurePackageExists(this.jpaOutputDirectory.getAbsolutePath(), jc.getPackageName());
 
-                if (!file.exists()) {
-                    file.createNewFile();
+            File file = BuildHelper.getFile(packagePath, jc.getName(), FIELDS_SUFFIX);
 
-                    final String classBodyCode = this.getCodeOfInterfaceBody(false, fieldsTemplate, jc, mapOfInterfaces, mapOfFieldFiles)[1];
-                    BuildHelper.writeContentToFile(classBodyCode, file);
+            if (!this.isUpToDate(jc, file)) {
+                final long started = System.nanoTime();
+                final GeneratedSource source = GeneratedSource.render((writer) ->
+                        this.renderInterfaceBody(false, fieldsTemplate, jc, jc, mapOfInterfaces, mapOfFieldFiles, writer));
+                final long rendered = System.nanoTime();
 
-                    cntCreatedFiles++;
-                }
-                else {
-                    cntSkippedFiles++;
+                final boolean isWritten = source.writeTo(file);
+                this.report.addFile(jc.getFullyQualifiedName(), GenerationReport.KIND_FIELDS,
+                        rendered - started, System.nanoTime() - rendered, source.size());
+                return isWritten;
+            }
+            return false;
+        });
+        getLog().info(cntCreatedFiles + " files were generated and " + (classes.size() - cntCreatedFiles) + " were skipped");
+    }
+
+    /**
+     * Renders every given class on the pool of {@link #threads} workers. Every class is written
+     * to its own file, thus the output doesn't depend on the order of rendering. A failure of
+     * one class doesn't stop the others: all the failures are reported per class at the end.
+     *
+     * @param classes - top-level stub classes
+     * @param renderer - renders one class and returns TRUE if its file was written
+     * @return number of written files
+     * @throws MojoFailureException if at least one class failed
+     */
+    private int renderClasses(List<JavaClass> classes, ClassRenderer renderer) throws MojoFailureException {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.threads));
+        try {
+            final List<Future<Boolean>> futures = Lists.newArrayListWithCapacity(classes.size());
+            for (JavaClass jc : classes) {
+                futures.add(executor.submit(() -> renderer.render(jc)));
+            }
+
+            int cntWrittenFiles = 0;
+            final List<String> lstFailures = Lists.newArrayList();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    if (futures.get(i).get()) {
+                        cntWrittenFiles++;
+                    }
+                } catch (ExecutionException e) {
+                    final String failure = classes.get(i).getFullyQualifiedName() + ": " + e.getCause();
+                    getLog().error("Generation failed for " + failure, e.getCause());
+                    lstFailures.add(failure);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MojoFailureException("Generation was interrupted");
                 }
             }
+
+            if (!lstFailures.isEmpty()) {
+                throw new MojoFailureException(lstFailures.size() + " classes were not generated:\n" + StringUtils.join(lstFailures, "\n"));
+            }
+            return cntWrittenFiles;
+        }
+        finally {
+            executor.shutdownNow();
         }
-        getLog().info(cntCreatedFiles + " files were generated and " + cntSkippedFiles + " were skipped");
+    }
+
+    /**
+     * Renders one top-level class to a file
+     */
+    @FunctionalInterface
+    private interface ClassRenderer {
+        boolean render(JavaClass jc) throws Exception;
     }
 
     /**
@@ -288,25 +617,25 @@ public class SoapToJpaMojo extends AbstractMojo {
      * @param isEmbedded
      * @param fieldsTemplate
      * @param jc
+     * @param mostUpperClass - top-level class, containing jc (or jc itself)
+     * @param writer - where the class code is written to
      *
-     * @return String array:
-     *  [0] - the first field from inner class
-     *  [1] - the class code ready to be saved to a file
+     * @return the first field from inner class
      */
-    private String[] getCodeOfInterfaceBody(final boolean isEmbedded,
-                                            final Template fieldsTemplate,
-                                            final JavaClass jc,
-                                            Map<String, String> mapOfInterfaces,
-                                            Map<String, String> mapOfFieldFiles) {
+    private String renderInterfaceBody(final boolean isEmbedded,
+                                       final Template fieldsTemplate,
+                                       final JavaClass jc,
+                                       final JavaClass mostUpperClass,
+                                       Map<String, String> mapOfInterfaces,
+                                       Map<String, String> mapOfFieldFiles,
+                                       Writer writer) {
 
         // map "field name" <==> "field type"
-        final Map<String, FieldType> mapOfFieldTypes = BuildHelper.buildMapOfFields(jc,
-                mapOfInterfaces,
-                jc,
-                getLog(),
-                this.fieldNameUsedAsIdentityName,
-                this.fieldNameUsedAsIdentityType,
-                this.builder);
+        final Map<String, FieldType> mapOfFieldTypes = this.getFieldModel(jc);
+        final List<JavaClass> nestedClasses;
+        synchronized (this.modelLock) {
+            nestedClasses = jc.getNestedClasses();
+        }
 
         // map "field on LOWER_CASE" <==> "field in CamelCase"
         final Map<String, String> mapOfFields = mapOfFieldTypes.keySet()
@@ -322,7 +651,6 @@ public class SoapToJpaMojo extends AbstractMojo {
                 .filter((field) -> mapOfFieldTypes.get(field).isPrimitive())
                 .collect(Collectors.toSet());
 
-        final List<JavaClass> nestedClasses = jc.getNestedClasses();
         final ImmutableList.Builder<InnerClass> lstInnerClassesBuilder = ImmutableList.builder();
         final ImmutableSet.Builder<String> setInnerClassNamesBuilder = ImmutableSet.builder();
 
@@ -331,11 +659,12 @@ public class SoapToJpaMojo extends AbstractMojo {
 
         if (!nestedClasses.isEmpty()) {
             for (JavaClass nestedClass : nestedClasses) {
-                if (!nestedClass.getName().endsWith("Factory")) {
+                if (this.isStubName.test(nestedClass.getCanonicalName())) {
                     // render inner class and get the code
-                    final String[] innerClass = this.getCodeOfInterfaceBody(true, fieldsTemplate, nestedClass, mapOfInterfaces, mapOfFieldFiles);
-                    mapInnerClassFirstField.put(nestedClass.getName(), innerClass[0]);
-                    lstInnerClassesBuilder.add(new InnerClass(nestedClass.getName(), innerClass[1] ));
+                    final StringWriter innerClassWriter = new StringWriter();
+                    final String innerClassFirstField = this.renderInterfaceBody(true, fieldsTemplate, nestedClass, mostUpperClass, mapOfInterfaces, mapOfFieldFiles, innerClassWriter);
+                    mapInnerClassFirstField.put(nestedClass.getName(), innerClassFirstField);
+                    lstInnerClassesBuilder.add(new InnerClass(nestedClass.getName(), innerClassWriter.toString()));
                     setInnerClassNamesBuilder.add(nestedClass.getName());
                 }
             }
@@ -369,31 +698,75 @@ public class SoapToJpaMojo extends AbstractMojo {
         context.put("mapOfFieldFiles", mapOfFieldFiles);
         context.put("hasIdentField", setOfPrimitives.stream().anyMatch((field) -> field.equalsIgnoreCase(this.fieldNameUsedAsIdentityName)));
         context.put("hasPolymorphicField", hasPolymorphicField);
+        context.put("stubFingerprint", this.stubFingerprint);
 
-        StringWriter writer = new StringWriter();
         fieldsTemplate.merge( context, writer );
 
         // get the very first field of current class. It will be used to build the path containing inner classes
         final Iterator<String> iterator = mapOfFieldTypes.keySet().iterator();
-        final String strFirstFieldOfInnerClass = iterator.hasNext() ? StringUtils.capitalize(iterator.next()) : "";
-
-        return new String[]{ strFirstFieldOfInnerClass, writer.toString() };
+        return iterator.hasNext() ? StringUtils.capitalize(iterator.next()) : "";
     }
 
-    private void generateFactory(Template factoryTemplate, Map<String, String> mapFieldFiles) throws IOException, MojoFailureException {
+    /**
+     * Write the factory and its chunks. Every chunk contains about {@link #factoryChunkSize} stubs,
+     * the factory routes a stub name to its chunk by hash
+     *
+     * @param factoryTemplate - template of the factory
+     * @param chunkTemplate - template of one chunk
+     * @param mapFieldFiles - map "soap interface/class" <==> "Fields file"
+     */
+    private void generateFactory(Template factoryTemplate, Template chunkTemplate, Map<String, String> mapFieldFiles) throws IOException, MojoFailureException {
         final String packagePath = BuildHelper.ensurePackageExists(this.jpaOutputDirectory.getAbsolutePath(), factoryPackageName);
+        final List<Map<String, String>> chunks = BuildHelper.splitIntoFactoryChunks(mapFieldFiles, this.factoryChunkSize);
+        final Pattern preloadPatterns = BuildHelper.compileClassNamePatterns(this.factoryPreloadStubs);
+        // numbers of the chunks that contain hot stubs
+        final List<Integer> preloadedChunks = Lists.newArrayList();
+        int cntPreloaded = 0;
+
+        for (int i = 0; i < chunks.size(); i++) {
+            File chunkFile = BuildHelper.ensureFactoryFileExists(packagePath, i + 1);
+
+            VelocityContext chunkContext = new VelocityContext();
+            chunkContext.put("package", factoryPackageName);
+            chunkContext.put("chunk", i + 1);
+            chunkContext.put("chunks", chunks.size());
+            final List<String> preloaded = chunks.get(i).keySet().stream()
+                    .filter((stubName) -> preloadPatterns.matcher(stubName).matches())
+                    .collect(Collectors.toList());
+            if (!preloaded.isEmpty()) {
+                preloadedChunks.add(i + 1);
+                cntPreloaded += preloaded.size();
+            }
+
+            chunkContext.put("interfaces", chunks.get(i));
+            chunkContext.put("preloaded", preloaded);
+            chunkContext.put("fieldsPackage", this.fieldsPackageName);
+            chunkContext.put("generationDate", generationDate);
+
+            GeneratedSource.write(chunkFile, (writer) -> chunkTemplate.merge(chunkContext, writer));
+        }
+
+        for (File staleChunk : BuildHelper.findFactoryChunksAfter(packagePath, chunks.size())) {
+            if (staleChunk.delete()) {
+                getLog().info("Factory chunk " + staleChunk.getName() + " is not used anymore and was deleted");
+            }
+        }
+        getLog().info(mapFieldFiles.size() + " stubs were put into " + chunks.size() + " chunks of the factory");
+        if (cntPreloaded > 0) {
+            getLog().info(cntPreloaded + " stubs are preloaded by the factory");
+        }
+
         File factoryFile = BuildHelper.ensureFactoryFileExists(packagePath, 0);
 
         VelocityContext context = new VelocityContext();
         context.put("package", factoryPackageName);
-        context.put("interfaces", mapFieldFiles);
+        context.put("chunks", chunks.size());
+        context.put("preloadedChunks", preloadedChunks);
         context.put("fieldsPackage", this.fieldsPackageName);
+        context.put("identityFieldType", this.fieldNameUsedAsIdentityType);
         context.put("generationDate", generationDate);
 
-        StringWriter writer = new StringWriter();
-        factoryTemplate.merge( context, writer );
-
-        BuildHelper.writeContentToFile(writer.toString(), factoryFile);
+        GeneratedSource.write(factoryFile, (writer) -> factoryTemplate.merge(context, writer));
     }
 
     /**
@@ -409,37 +782,38 @@ public class SoapToJpaMojo extends AbstractMojo {
      */
     private void generateJpaClasses(Template t, Template udfParent, Map<String, String> mapInterfaces, Map<String, Set<String>> mapOfConstructors) throws Exception {
         getLog().info("Generation of the JPA objects...");
-        int cntCreatedFiles = 0;
-        int cntSkippedFiles = 0;
 
-        for (JavaClass jc : builder.getClasses()) {
-            if (/*jc.isInterface() && */!jc.isInner()) {
-
-                final String packageName = jc.getPackageName();
-                final String packagePath = BuildHelper.ensurePackageExists(this.jpaOutputDirectory.getAbsolutePath(), packageName);
+        final List<JavaClass> classes = this.stubClasses
+                .stream()
+                .filter((jc) -> /*jc.isInterface() && */!jc.isInner())
+                .collect(Collectors.toList());
 
-                if (jc.getName().equals("UDF")) {
-                    // hardcoded stuff. I would be happy to generalize it.
-                    this.generateUDFParenClass(udfParent, packageName);
-                }
+        final int cntCreatedFiles = this.renderClasses(classes, (jc) -> {
 
-                File jpaFile = BuildHelper.getFile(packagePath, jc.getName(), JPA_SUFFIX);
+            final String packageName = jc.getPackageName();
+            final String packagePath = BuildHelper.ensurePackageExists(this.jpaOutputDirectory.getAbsolutePath(), packageName);
 
-                if (!jpaFile.exists()) {
-                    jpaFile.createNewFile();
+            if (jc.getName().equals("UDF")) {
+                // hardcoded stuff. I would be happy to generalize it.
+                this.generateUDFParenClass(udfParent, packageName);
+            }
 
-                    final String classBodyCode = this.getCodeOfClassBody(false, t, mapInterfaces, mapOfConstructors, jc, jc);
+            File jpaFile = BuildHelper.getFile(packagePath, jc.getName(), JPA_SUFFIX);
 
-                    BuildHelper.writeContentToFile(classBodyCode, jpaFile);
+            if (!this.isUpToDate(jc, jpaFile)) {
+                final long started = System.nanoTime();
+                final GeneratedSource source = GeneratedSource.render((writer) ->
+                        this.renderClassBody(false, t, mapInterfaces, mapOfConstructors, jc, jc, writer));
+                final long rendered = System.nanoTime();
 
-                    cntCreatedFiles++;
-                }
-                else {
-                    cntSkippedFiles++;
-                }
+                final boolean isWritten = source.writeTo(jpaFile);
+                this.report.addFile(jc.getFullyQualifiedName(), GenerationReport.KIND_JPA,
+                        rendered - started, System.nanoTime() - rendered, source.size());
+                return isWritten;
             }
-        }
-        getLog().info(cntCreatedFiles + " files were generated and " + cntSkippedFiles + " were skipped");
+            return false;
+        });
+        getLog().info(cntCreatedFiles + " files were generated and " + (classes.size() - cntCreatedFiles) + " were skipped");
     }
 
     /**
@@ -451,35 +825,35 @@ public class SoapToJpaMojo extends AbstractMojo {
     private void generateUDFParenClass(Template udfParent, String packageName) throws Exception {
         final String packagePath = BuildHelper.ensurePackageExists(this.jpaOutputDirectory.getAbsolutePath(), packageName);
 
-        File file = BuildHelper.getFile(packagePath, "UDFValueMapping", "");
+        File file = BuildHelper.getFile(packagePath, UDF_PARENT_CLASS, "");
         VelocityContext context = new VelocityContext();
         context.put("package", packageName);
 
-        StringWriter writer = new StringWriter();
-        udfParent.merge(context, writer );
-
-        BuildHelper.writeContentToFile(writer.toString(), file);
+        GeneratedSource.write(file, (writer) -> udfParent.merge(context, writer));
     }
 
     /**
-     * Renders the body code of a given class and returns it as String.
+     * Renders the body code of a given class to a writer.
      * It can be parent class or embedded (inner) class.
      *
      * @param t
      * @param mapInterfaces
      * @param mapOfConstructors
      * @param jc
-     * @return
+     * @param writer - where the class code is written to
      */
-    private String getCodeOfClassBody(boolean isEmbedded, Template t, Map<String, String> mapInterfaces, Map<String, Set<String>> mapOfConstructors, JavaClass jc, JavaClass mostUpperClass) {
-
-        final Map<String, FieldType> mapOfFields = BuildHelper.buildMapOfFields(jc,
-                mapInterfaces,
-                mostUpperClass,
-                getLog(),
-                this.fieldNameUsedAsIdentityName,
-                this.fieldNameUsedAsIdentityType,
-                this.builder);
+    private void renderClassBody(boolean isEmbedded, Template t, Map<String, String> mapInterfaces, Map<String, Set<String>> mapOfConstructors,
+                                 JavaClass jc, JavaClass mostUpperClass, Writer writer) {
+
+        // own copy of the model, because types of "strangers" are adjusted below
+        final Map<String, FieldType> mapOfFields = new TreeMap<>(this.getFieldModel(jc));
+        final String parentClass;
+        synchronized (this.modelLock) {
+            //extends
+            parentClass = (null == jc.getSuperJavaClass()) ?
+                    java.lang.Object.class.getTypeName() :
+                    mapInterfaces.getOrDefault(jc.getSuperJavaClass().getGenericFullyQualifiedName(), java.lang.Object.class.getTypeName());
+        }
 
         // map "field in CamelCase" <==> "field on LOWER_CASE"
         final Map<String, String> mapOfCamelFields = mapOfFields.keySet()
@@ -496,6 +870,7 @@ public class SoapToJpaMojo extends AbstractMojo {
         // build the bodies of inner classes
         final List<InnerClass> lstInnerClasses = this.getListOfInnerClasses(t, mapInterfaces, mapOfConstructors, jc, mostUpperClass, mapOfStrangers);
 
+        mapOfStrangers.keySet().forEach((key) -> mapOfFields.put(key, new FieldType(mapOfFields.get(key))));
         modifyContextForStrangerTypes(mapOfFields,mapOfStrangers,jc.getName());
 
         // in case of inner classes we have to use prefixes for fields in order to avoid duplicates.
@@ -508,11 +883,6 @@ public class SoapToJpaMojo extends AbstractMojo {
                 .parallelStream()
                 .anyMatch((field) -> field.equalsIgnoreCase(this.fieldNameUsedAsIdentityName));
 
-        //extends
-        final String parentClass = (null == jc.getSuperJavaClass()) ?
-                java.lang.Object.class.getTypeName() :
-                mapInterfaces.getOrDefault(jc.getSuperJavaClass().getGenericFullyQualifiedName(), java.lang.Object.class.getTypeName());
-
 
         VelocityContext context = new VelocityContext();
         context.put("isEmbedded", isEmbedded);
@@ -530,6 +900,8 @@ public class SoapToJpaMojo extends AbstractMojo {
         context.put("fieldPrefix", fieldPrefix);
         context.put("hasIdentField", hasIdentField);
         context.put("parentClass", parentClass);
+        context.put("identityLookupChunkSize", this.identityLookupChunkSize);
+        context.put("stubFingerprint", this.stubFingerprint);
 
 
         if (isEmbedded) {
@@ -541,10 +913,70 @@ public class SoapToJpaMojo extends AbstractMojo {
             context.put("constructors", className);
         }
 
-        StringWriter writer = new StringWriter();
         t.merge( context, writer );
+    }
 
-        return writer.toString();
+    /**
+     * Resolves the fields of every top-level stub class rendered by this run and of its nested stub classes.
+     * It is done in one pass of the current thread, so that the workers only read the built models.
+     *
+     * @param mapInterfaces - map "interface class" <==> "JPA class"
+     */
+    private void buildFieldModels(Map<String, String> mapInterfaces) throws IOException {
+        for (JavaClass jc : this.stubClasses) {
+            if (!jc.isInner() && this.isRendered(jc)) {
+                this.buildFieldModels(jc, jc, mapInterfaces);
+            }
+        }
+    }
+
+    /**
+     * Resolves the fields of a given class and of its nested stub classes
+     *
+     * @param jc - stub class
+     * @param mostUpperClass - top-level class, containing jc (or jc itself)
+     * @param mapInterfaces - map "interface class" <==> "JPA class"
+     */
+    private void buildFieldModels(JavaClass jc, JavaClass mostUpperClass, Map<String, String> mapInterfaces) {
+        final long started = System.nanoTime();
+        this.mapOfFieldModels.put(jc.getFullyQualifiedName(), ImmutableSortedMap.copyOf(BuildHelper.buildMapOfFields(jc,
+                mapInterfaces,
+                mostUpperClass,
+                getLog(),
+                this.fieldNameUsedAsIdentityName,
+                this.fieldNameUsedAsIdentityType,
+                this.builder)));
+        this.report.addModelTime(mostUpperClass.getFullyQualifiedName(), System.nanoTime() - started);
+
+        for (JavaClass nestedClass : jc.getNestedClasses()) {
+            if (this.isStubName.test(nestedClass.getCanonicalName())) {
+                this.buildFieldModels(nestedClass, mostUpperClass, mapInterfaces);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the JPA or Fields file of a given top-level stub class is rendered by this run
+     */
+    private boolean isRendered(JavaClass jc) throws IOException {
+        final String packagePath = this.jpaOutputDirectory.getAbsolutePath() + File.separator + jc.getPackageName().replace(".", File.separator);
+        return !this.isUpToDate(jc, BuildHelper.getFile(packagePath, jc.getName(), JPA_SUFFIX))
+                || !this.isUpToDate(jc, BuildHelper.getFile(packagePath, jc.getName(), FIELDS_SUFFIX));
+    }
+
+    /**
+     * Returns the fields of a given class, resolved by {@link #buildFieldModels(Map)}. They are shared
+     * between the JPA and Fields passes, thus the returned map (and its types) must not be modified.
+     *
+     * @param jc - stub class
+     * @return immutable map "field name" <==> "field type"
+     */
+    private Map<String, FieldType> getFieldModel(JavaClass jc) {
+        final Map<String, FieldType> model = this.mapOfFieldModels.get(jc.getFullyQualifiedName());
+        if (null == model) {
+            throw new IllegalStateException("Fields of " + jc.getFullyQualifiedName() + " were not resolved before the rendering");
+        }
+        return model;
     }
 
     void modifyContextForStrangerTypes(Map<String, FieldType> mapOfFields, Map<String, FieldType> mapOfStrangers, String name) {
@@ -590,23 +1022,27 @@ public class SoapToJpaMojo extends AbstractMojo {
     private List<InnerClass> getListOfInnerClasses(Template t, Map<String, String> mapInterfaces, Map<String, Set<String>> mapOfConstructors,
                                                    JavaClass jc, JavaClass mostUpperClass, Map<String, FieldType> mapOfStrangers) {
 
-        final List<JavaClass> nestedClasses = jc.getNestedClasses();
-
-        final List<DefaultJavaClass> listOfStrangers = mapOfStrangers
-                .keySet()
-                .parallelStream()
-                .map((key) -> (DefaultJavaClass) builder.getClassByName(mapOfStrangers.get(key).getOriginalTypeName()))
-                .collect(Collectors.toList());
+        final List<JavaClass> nestedClasses;
+        final List<DefaultJavaClass> listOfStrangers;
+        synchronized (this.modelLock) {
+            nestedClasses = jc.getNestedClasses();
+            listOfStrangers = mapOfStrangers
+                    .keySet()
+                    .stream()
+                    .map((key) -> (DefaultJavaClass) builder.getClassByName(mapOfStrangers.get(key).getOriginalTypeName()))
+                    .collect(Collectors.toList());
+        }
 
         //nestedClasses.addAll(listOfStrangers);
 
         if (!nestedClasses.isEmpty()) {
             final ImmutableList.Builder<InnerClass> listBuilder = ImmutableList.builder();
             for (JavaClass nestedClass : nestedClasses) {
-                if (/*nestedClass.isInterface() &&*/ !nestedClass.getName().endsWith("Factory")) {
+                if (/*nestedClass.isInterface() &&*/ this.isStubName.test(nestedClass.getCanonicalName())) {
                     // render inner class and get the code
-                    final String codeOfInnerClassBody = this.getCodeOfClassBody(true, t, mapInterfaces, mapOfConstructors, nestedClass, mostUpperClass);
-                    listBuilder.add(new InnerClass(nestedClass.getName(), codeOfInnerClassBody));
+                    final StringWriter innerClassWriter = new StringWriter();
+                    this.renderClassBody(true, t, mapInterfaces, mapOfConstructors, nestedClass, mostUpperClass, innerClassWriter);
+                    listBuilder.add(new InnerClass(nestedClass.getName(), innerClassWriter.toString()));
                 }
             }
             return listBuilder.build();
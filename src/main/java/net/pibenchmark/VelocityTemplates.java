@@ -0,0 +1,56 @@
+package net.pibenchmark;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Apache Velocity engine and parsed templates, shared by all the executions of the plugin.
+ *
+ * Maven keeps the class realm of a plugin for the whole session, thus in a reactor build
+ * the templates are parsed once per build instead of once per module. Sub-templates,
+ * included by #parse, are kept in the resource cache of the engine, so they are not
+ * parsed again for every rendered class either.
+ *
+ * Parsed templates are immutable and can be merged by several workers at the same time.
+ */
+public final class VelocityTemplates {
+
+    // map "template name" <==> "parsed template"
+    private static final ConcurrentMap<String, Template> TEMPLATES = new ConcurrentHashMap<>();
+
+    private VelocityTemplates() {}
+
+    /**
+     * Returns the parsed template. Only the first call parses it
+     *
+     * @param name - name of template on the classpath, e.g. "JpaEntityTemplate.vm"
+     * @return template
+     */
+    public static Template get(String name) {
+        return TEMPLATES.computeIfAbsent(name, EngineHolder.ENGINE::getTemplate);
+    }
+
+    /**
+     * The engine is created on the first request of a template
+     */
+    private static final class EngineHolder {
+
+        static final VelocityEngine ENGINE = createEngine();
+
+        private static VelocityEngine createEngine() {
+            final VelocityEngine ve = new VelocityEngine();
+            ve.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
+            ve.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
+            // templates are packed into the plugin JAR and never change during the build
+            ve.setProperty("classpath.resource.loader.cache", "true");
+            ve.setProperty("classpath.resource.loader.modificationCheckInterval", "-1");
+            ve.init();
+            return ve;
+        }
+    }
+}
@@ -60,10 +60,35 @@ public class FieldType {
         this.isJpa = isJpa;
     }
 
+    /**
+     * Copy constructor. The model of fields is shared between rendering passes,
+     * thus a pass that wants to adjust a type has to work with its own copy.
+     *
+     * @param other
+     */
+    public FieldType(FieldType other) {
+        this(other.typeKind, other.typeName, other.originalTypeName, other.originalTypeSimpleName, other.hasIdentField, other.cntFields, other.isJpa);
+        this.isGenericInnerClass = other.isGenericInnerClass;
+        this.isShouldBeCasted = other.isShouldBeCasted;
+        this.castType = other.castType;
+        this.isAbstract = other.isAbstract;
+        this.setImplementations = other.setImplementations;
+    }
+
     public String getTypeName() {
         return typeName;
     }
 
+    /**
+     * Returns JPA type without package. For a top-level entity it is also
+     * the default entity name, that can be used in JPQL queries.
+     *
+     * @return simple name of JPA type
+     */
+    public String getTypeSimpleName() {
+        return typeName.substring(typeName.lastIndexOf('.') + 1);
+    }
+
     public byte getTypeKind() {
         return typeKind;
     }
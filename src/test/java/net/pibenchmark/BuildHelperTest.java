@@ -9,11 +9,14 @@ import com.thoughtworks.qdox.model.JavaField;
 import com.thoughtworks.qdox.model.JavaMethod;
 import com.thoughtworks.qdox.model.impl.DefaultJavaClass;
 import net.pibenchmark.pojo.FieldType;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.Matcher;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Answers;
 import org.mockito.Mock;
@@ -24,7 +27,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
@@ -65,6 +71,9 @@ public class BuildHelperTest {
     @Mock
     private Log log;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     public BuildHelperTest() {
         MockitoAnnotations.initMocks(this);
     }
@@ -231,6 +240,28 @@ public class BuildHelperTest {
         assertTrue(javaFields.stream().noneMatch((field) -> field.getName().equals("nonExistingField")));
     }
 
+    @Test
+    public void testFieldIndexIsCaseInsensitiveAndContainsParentFields() {
+
+        // given: a class with field "firstName", extending a class with field "number"
+        final JavaField ownField = org.mockito.Mockito.mock(JavaField.class);
+        when( ownField.getName() ).thenReturn("firstName");
+        when( mockedField.getName() ).thenReturn("number");
+        when( jc.getFields() ).thenReturn(Lists.newArrayList(ownField));
+        when( jc.getSuperJavaClass().getFields()).thenReturn( ImmutableList.of(mockedField) );
+
+        // when: we build the index
+        final java.util.Map<String, JavaField> index = BuildHelper.buildFieldIndex(jc);
+
+        // then: both fields can be found regardless of the case
+        assertSame(ownField, index.get("FirstName"));
+        assertSame(mockedField, index.get("NUMBER"));
+        assertNull(index.get("nonExistingField"));
+
+        // and: the fields of the class itself were not modified
+        assertEquals(1, jc.getFields().size());
+    }
+
     /**
      * situation, where we want have a class with no fields, extending
      * another parent class that has field "number".
@@ -331,6 +362,89 @@ public class BuildHelperTest {
 
     }
 
+    @Test
+    public void testCompileClassNamePatterns() {
+
+        // given: default excludes and a pattern of one package
+        final Pattern excludes = BuildHelper.compileClassNamePatterns(new String[]{"**Factory", "**Impl"});
+        final Pattern onePackage = BuildHelper.compileClassNamePatterns(new String[]{"com.example.*"});
+
+        // then: "**" matches any part of a name, including nested classes
+        assertTrue(excludes.matcher("com.example.ObjectFactory").matches());
+        assertTrue(excludes.matcher("com.example.Candidate.Factory").matches());
+        assertTrue(excludes.matcher("com.example.CandidateImpl").matches());
+        assertFalse(excludes.matcher("com.example.Candidate").matches());
+
+        // and "*" does not cross dots
+        assertTrue(onePackage.matcher("com.example.Candidate").matches());
+        assertFalse(onePackage.matcher("com.example.Candidate.Phone").matches());
+        assertFalse(onePackage.matcher("com.example.sub.Candidate").matches());
+
+        // and no patterns match nothing
+        assertFalse(BuildHelper.compileClassNamePatterns(new String[0]).matcher("com.example.Candidate").matches());
+    }
+
+    @Test
+    public void testSplitIntoFactoryChunks() {
+
+        // given: 250 stubs
+        final Map<String, String> mapFieldFiles = new TreeMap<>();
+        for (int i = 0; i < 250; i++) {
+            mapFieldFiles.put("com.example.Stub" + i, "com.example.Stub" + i + "Fields");
+        }
+
+        // when: they are split into chunks of 100
+        final List<Map<String, String>> chunks = BuildHelper.splitIntoFactoryChunks(mapFieldFiles, 100);
+
+        // then: there are 3 chunks, and every stub is in the chunk the factory routes it to
+        assertEquals(3, chunks.size());
+        assertEquals(250, chunks.stream().mapToInt(Map::size).sum());
+        for (int i = 0; i < chunks.size(); i++) {
+            for (String stubName : chunks.get(i).keySet()) {
+                assertEquals(i, Math.floorMod(stubName.hashCode(), 3));
+            }
+        }
+
+        // and no stubs still give one chunk
+        assertEquals(1, BuildHelper.splitIntoFactoryChunks(ImmutableMap.of(), 100).size());
+    }
+
+    @Test
+    public void testFindFactoryChunksAfter() throws Exception {
+
+        // given: the factory with 3 chunks from the previous generation
+        final File packageDir = folder.getRoot();
+        for (String name : new String[]{"JPAEntitiesFactory.java", "JPAEntitiesFactoryChunk1.java",
+                "JPAEntitiesFactoryChunk2.java", "JPAEntitiesFactoryChunk3.java"}) {
+            assertTrue(new File(packageDir, name).createNewFile());
+        }
+
+        // when: now there is only one chunk
+        final List<File> staleChunks = BuildHelper.findFactoryChunksAfter(packageDir.getAbsolutePath(), 1);
+
+        // then: the last two are stale
+        assertEquals(2, staleChunks.size());
+        assertTrue(staleChunks.contains(new File(packageDir, "JPAEntitiesFactoryChunk2.java")));
+        assertTrue(staleChunks.contains(new File(packageDir, "JPAEntitiesFactoryChunk3.java")));
+    }
+
+    @Test
+    public void testFormatGenerationDate() throws Exception {
+        // fixed timestamps are formatted in UTC, so generated sources are the same on every machine
+        assertEquals("2024-01-01T00:00:00+00:00", BuildHelper.formatGenerationDate("2024-01-01T00:00:00Z"));
+        assertEquals("2024-01-01T00:00:00+00:00", BuildHelper.formatGenerationDate("2024-01-01T02:00:00+02:00"));
+        assertEquals("2024-01-01T00:00:00+00:00", BuildHelper.formatGenerationDate("1704067200"));
+
+        // without timestamp the date is omitted, rather than changed on every build
+        assertNull(BuildHelper.formatGenerationDate(null));
+        assertNull(BuildHelper.formatGenerationDate(""));
+    }
+
+    @Test(expected = MojoFailureException.class)
+    public void testFormatGenerationDateWithWrongTimestamp() throws Exception {
+        BuildHelper.formatGenerationDate("yesterday");
+    }
+
     @Test
     public void testExtractGenericType() {
         assertEquals("my.class.Name", BuildHelper.extractGenericTypeFromCollection("java.util.List<my.class.Name>"));
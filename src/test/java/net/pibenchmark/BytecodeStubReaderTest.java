@@ -0,0 +1,103 @@
+package net.pibenchmark;
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaField;
+import net.pibenchmark.testFiles.SimpleClassOne;
+import net.pibenchmark.testFiles.SimpleClassWithPolymorphicField;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.*;
+
+public class BytecodeStubReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // compiled "testFiles" classes
+    final File testClassesDir = new File("target/test-classes").getAbsoluteFile();
+
+    // sources of the same classes
+    final File testSourcesDir = new File("src/test/java").getAbsoluteFile();
+
+    @Test
+    public void testModelIsTheSameAsFromSources() throws Exception {
+
+        // given: the same stubs, read from sources and from class files
+        final JavaProjectBuilder fromSources = new JavaProjectBuilder();
+        fromSources.addSourceTree(new File(testSourcesDir, "net/pibenchmark/testFiles"));
+
+        final JavaProjectBuilder fromBytecode = new JavaProjectBuilder();
+        final int count = BytecodeStubReader.addStubClasses(
+                new File(testClassesDir, "net/pibenchmark/testFiles"), fromBytecode, name -> true, name -> false);
+
+        // then: every class has the same fields, of the same types and with the same annotations
+        assertEquals(fromSources.getSources().size(), count);
+        for (JavaClass expected : fromSources.getClasses()) {
+            final JavaClass actual = fromBytecode.getClassByName(expected.getFullyQualifiedName());
+            assertEquals(expected.getSuperClass().getFullyQualifiedName(), actual.getSuperClass().getFullyQualifiedName());
+            assertEquals(expected.getFields().size(), actual.getFields().size());
+            for (JavaField field : expected.getFields()) {
+                final JavaField actualField = actual.getFieldByName(field.getName());
+                assertEquals(field.getType().getGenericFullyQualifiedName(), actualField.getType().getGenericFullyQualifiedName());
+                assertEquals(field.getAnnotations().size(), actualField.getAnnotations().size());
+            }
+            assertEquals(expected.getNestedClasses().size(), actual.getNestedClasses().size());
+        }
+    }
+
+    @Test
+    public void testExcludedClassesAreSkipped() throws Exception {
+
+        // given: one class is not a stub
+        final JavaProjectBuilder builder = new JavaProjectBuilder();
+        final int count = BytecodeStubReader.addStubClasses(
+                new File(testClassesDir, "net/pibenchmark/testFiles"), builder,
+                name -> !name.equals(SimpleClassWithPolymorphicField.class.getName()), name -> false);
+
+        // then: the rest are read, nested classes with their enclosing class
+        assertEquals(2, count);
+        assertNotNull(builder.getClassByName(SimpleClassOne.class.getName()).getNestedClassByName("SimpleInnerClass"));
+        assertTrue(builder.getClasses().stream()
+                .noneMatch(c -> c.getFullyQualifiedName().equals(SimpleClassWithPolymorphicField.class.getName())));
+    }
+
+    @Test
+    public void testClassesFromJarAreTrackedByTheJar() throws Exception {
+
+        // given: the stubs are packed into a JAR
+        final File jar = folder.newFile("stubs.jar");
+        final Path root = testClassesDir.toPath();
+        final List<Path> classFiles;
+        try (Stream<Path> paths = Files.walk(root.resolve("net/pibenchmark/testFiles"))) {
+            classFiles = paths.filter((path) -> path.toString().endsWith(".class")).collect(Collectors.toList());
+        }
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (Path classFile : classFiles) {
+                out.putNextEntry(new ZipEntry(root.relativize(classFile).toString().replace(File.separatorChar, '/')));
+                out.write(Files.readAllBytes(classFile));
+                out.closeEntry();
+            }
+        }
+
+        // when: they are read from the JAR
+        final JavaProjectBuilder builder = new JavaProjectBuilder();
+        BytecodeStubReader.addStubClasses(jar, builder, name -> true, name -> false);
+
+        // then: the JAR is the source file of a class, so its changes are noticed by the incremental mode
+        final JavaClass jc = builder.getClassByName(SimpleClassOne.class.getName());
+        assertEquals(jar.getCanonicalFile(), BuildHelper.collectSourceFiles(jc, builder).iterator().next().getCanonicalFile());
+    }
+}
@@ -0,0 +1,108 @@
+package net.pibenchmark;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class GeneratedSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNewFileIsWrittenInUtf8() throws Exception {
+
+        // given: the file doesn't exist yet
+        final File file = new File(folder.getRoot(), "A.java");
+
+        // when: a source with non-ASCII characters is written
+        final boolean isWritten = GeneratedSource.write(file, (writer) -> writer.write("// Hämäläinen\nclass A {}\n"));
+
+        // then: it is written in UTF-8
+        assertTrue(isWritten);
+        assertEquals("// Hämäläinen\nclass A {}\n", Files.toString(file, Charsets.UTF_8));
+    }
+
+    @Test
+    public void testIdenticalContentIsNotWritten() throws Exception {
+
+        // given: the file from the previous run
+        final File file = folder.newFile("A.java");
+        Files.write("class A {}\n", file, Charsets.UTF_8);
+        assertTrue(file.setLastModified(1000L));
+
+        // when: the same source is rendered again
+        final boolean isWritten = GeneratedSource.write(file, (writer) -> writer.write("class A {}\n"));
+
+        // then: the file is not touched
+        assertFalse(isWritten);
+        assertEquals(1000L, file.lastModified());
+    }
+
+    @Test
+    public void testChangedContentIsWritten() throws Exception {
+
+        // given: the file from the previous run, longer than the new content
+        final File file = folder.newFile("A.java");
+        Files.write("class A { String id; }\n", file, Charsets.UTF_8);
+
+        // when: the changed sources are written, of another and of the same size
+        final boolean isWrittenShorter = GeneratedSource.write(file, (writer) -> writer.write("class A {}\n"));
+        final boolean isWrittenSameSize = GeneratedSource.write(file, (writer) -> writer.write("class B {}\n"));
+
+        // then: both are written and nothing remains from the previous content
+        assertTrue(isWrittenShorter);
+        assertTrue(isWrittenSameSize);
+        assertEquals("class B {}\n", Files.toString(file, Charsets.UTF_8));
+    }
+
+    @Test
+    public void testSourceBiggerThanBufferChunk() throws Exception {
+
+        // given: a big source, that is compared by several chunks
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append("    private String field").append(i).append(";\n");
+        }
+        final String content = sb.toString();
+        final File file = new File(folder.getRoot(), "Big.java");
+        GeneratedSource.write(file, (writer) -> writer.write(content));
+
+        // when: the same source, and then the source with the last byte changed, are written
+        final boolean isWrittenSame = GeneratedSource.write(file, (writer) -> writer.write(content));
+        final boolean isWrittenChanged = GeneratedSource.write(file, (writer) -> writer.write(content.substring(0, content.length() - 1) + " "));
+
+        // then: only the changed one is written
+        assertFalse(isWrittenSame);
+        assertTrue(isWrittenChanged);
+    }
+
+    @Test
+    public void testFailedRenderDoesNotLeakIntoNextFile() throws Exception {
+
+        // given: a render, that fails after writing a part of the source
+        try {
+            GeneratedSource.render((writer) -> {
+                writer.write("class Broken {");
+                throw new IOException("template failed");
+            });
+            fail("Failure of the renderer should be thrown");
+        } catch (IOException e) {
+            assertEquals("template failed", e.getMessage());
+        }
+
+        // when: the next file is rendered in the same thread
+        final File file = new File(folder.getRoot(), "A.java");
+        GeneratedSource.write(file, (writer) -> writer.write("class A {}\n"));
+
+        // then: it contains nothing from the failed render
+        assertEquals("class A {}\n", Files.toString(file, Charsets.UTF_8));
+    }
+}
@@ -0,0 +1,143 @@
+package net.pibenchmark;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import com.thoughtworks.qdox.model.JavaClass;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class GenerationManifestTest {
+
+    // not a @Rule: JUnit 4.7 runs @Before methods before the rules, when the folder is not created yet
+    private final TemporaryFolder folder = new TemporaryFolder();
+
+    private File stubA;
+    private File stubB;
+
+    @Before
+    public void setUp() throws Exception {
+        folder.create();
+        stubA = folder.newFile("A.java");
+        stubB = folder.newFile("B.java");
+        Files.write("class A {}", stubA, Charsets.UTF_8);
+        Files.write("class B {}", stubB, Charsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() {
+        folder.delete();
+    }
+
+    @Test
+    public void testEverythingIsChangedWithoutPreviousManifest() throws Exception {
+
+        // given: there is no manifest yet
+        final GenerationManifest manifest = GenerationManifest.load(folder.getRoot());
+
+        // when: we register a class
+        manifest.registerGlobalInputs(ImmutableList.of("Populate.vm"), "config");
+        manifest.registerClass("A", ImmutableList.of(stubA));
+
+        // then: it should be generated
+        assertFalse(manifest.isUpToDate("A"));
+    }
+
+    @Test
+    public void testOnlyChangedClassesShouldBeRenderedAgain() throws Exception {
+
+        // given: the manifest from the previous run
+        this.saveManifest("config");
+
+        // when: one stub is changed
+        Files.write("class B { String id; }", stubB, Charsets.UTF_8);
+        final GenerationManifest manifest = GenerationManifest.load(folder.getRoot());
+        manifest.registerGlobalInputs(ImmutableList.of("Populate.vm"), "config");
+        manifest.registerClass("A", ImmutableList.of(stubA));
+        manifest.registerClass("B", ImmutableList.of(stubB));
+
+        // then: only this stub should be generated again
+        assertTrue(manifest.isUpToDate("A"));
+        assertFalse(manifest.isUpToDate("B"));
+    }
+
+    @Test
+    public void testChangedConfigurationAffectsAllTheClasses() throws Exception {
+
+        // given: the manifest from the previous run
+        this.saveManifest("config");
+
+        // when: configuration was changed
+        final GenerationManifest manifest = GenerationManifest.load(folder.getRoot());
+        manifest.registerGlobalInputs(ImmutableList.of("Populate.vm"), "another config");
+        manifest.registerClass("A", ImmutableList.of(stubA));
+
+        // then: all the classes should be generated again
+        assertFalse(manifest.isUpToDate("A"));
+    }
+
+    @Test
+    public void testRemovedClasses() throws Exception {
+
+        // given: the manifest from the previous run
+        this.saveManifest("config");
+
+        // when: stub B disappeared
+        final GenerationManifest manifest = GenerationManifest.load(folder.getRoot());
+        manifest.registerGlobalInputs(ImmutableList.of("Populate.vm"), "config");
+        manifest.registerClass("A", ImmutableList.of(stubA));
+
+        // then: it is reported as removed
+        assertEquals(1, manifest.getRemovedClasses().size());
+        assertTrue(manifest.getRemovedClasses().contains("B"));
+    }
+
+    @Test
+    public void testAddedSubclassAffectsItsParent() throws Exception {
+
+        // given: the manifest from the previous run, when the parent had no subclasses
+        final File sources = folder.newFolder("stubs");
+        Files.write("public class Parent { String id; public String getId() { return id; } }",
+                new File(sources, "Parent.java"), Charsets.UTF_8);
+        this.saveManifest(sources, "Parent");
+
+        // when: a subclass is added
+        Files.write("public class Child extends Parent { String name; public String getName() { return name; } }",
+                new File(sources, "Child.java"), Charsets.UTF_8);
+        final GenerationManifest manifest = GenerationManifest.load(sources);
+        this.registerClasses(manifest, sources, "Parent");
+
+        // then: the parent should be generated again
+        assertFalse(manifest.isUpToDate("Parent"));
+    }
+
+    private void saveManifest(File sources, String className) throws Exception {
+        final GenerationManifest manifest = GenerationManifest.load(sources);
+        this.registerClasses(manifest, sources, className);
+        manifest.save();
+    }
+
+    private void registerClasses(GenerationManifest manifest, File sources, String className) throws Exception {
+        final JavaProjectBuilder builder = new JavaProjectBuilder();
+        builder.addSourceTree(sources);
+        final JavaClass jc = builder.getClassByName(className);
+
+        manifest.registerGlobalInputs(ImmutableList.of("Populate.vm"), "config");
+        manifest.registerClass(className, BuildHelper.collectSourceFiles(jc, builder, BuildHelper.buildMapOfSubclasses(builder.getClasses())));
+    }
+
+    private void saveManifest(String configuration) throws Exception {
+        final GenerationManifest manifest = GenerationManifest.load(folder.getRoot());
+        manifest.registerGlobalInputs(ImmutableList.of("Populate.vm"), configuration);
+        manifest.registerClass("A", ImmutableList.of(stubA));
+        manifest.registerClass("B", ImmutableList.of(stubB));
+        manifest.save();
+    }
+}
@@ -0,0 +1,81 @@
+package net.pibenchmark;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GenerationReportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSlowestClassesGoFirst() throws Exception {
+
+        // given: two classes, B is rendered longer than A
+        final GenerationReport report = new GenerationReport();
+        report.addFile("A", GenerationReport.KIND_JPA, millis(10), millis(1), 100);
+        report.addFile("A", GenerationReport.KIND_FIELDS, millis(5), millis(1), 50);
+        report.addFile("B", GenerationReport.KIND_JPA, millis(30), millis(1), 300);
+
+        // when: we ask for the slowest one
+        final List<GenerationReport.ClassTimings> slowest = report.getSlowestClasses(1);
+
+        // then: it is B
+        assertEquals(1, slowest.size());
+        assertEquals("B", slowest.get(0).getName());
+        assertEquals(millis(31), slowest.get(0).getTotalNanos());
+    }
+
+    @Test
+    public void testPhasesAreSummed() throws Exception {
+
+        // given: model phase with the model of one class and two written files
+        final GenerationReport report = new GenerationReport();
+        report.addPhaseTime(GenerationReport.PHASE_PARSE, millis(20));
+        report.addPhaseTime(GenerationReport.PHASE_MODEL, millis(4));
+        report.addModelTime("A", millis(3));
+        report.addFile("A", GenerationReport.KIND_JPA, millis(10), millis(1), 100);
+        report.addFile("A", GenerationReport.KIND_FIELDS, millis(5), millis(2), 50);
+
+        // then: writes are added to their phase, while the model of the class is not counted twice
+        assertEquals("parse 20.00 ms, model 4.00 ms, jpaRender 0.00 ms, fieldsRender 0.00 ms, factory 0.00 ms, write 3.00 ms",
+                report.describePhases());
+        assertEquals("A: 18.00 ms (model 3.00 ms, JPA 11.00 ms / 100 bytes, Fields 7.00 ms / 50 bytes)",
+                report.getSlowestClasses(1).get(0).describe());
+    }
+
+    @Test
+    public void testJsonReport() throws Exception {
+
+        // given: one rendered class
+        final GenerationReport report = new GenerationReport();
+        report.addPhaseTime(GenerationReport.PHASE_MODEL, millis(3));
+        report.addModelTime("com.example.A", millis(3));
+        report.addFile("com.example.A", GenerationReport.KIND_JPA, millis(10), millis(1), 100);
+        report.finish();
+
+        // when: the report is written to a directory that doesn't exist yet
+        final File file = new File(folder.getRoot(), "target/report.json");
+        report.write(file);
+
+        // then: the class is in the report with its timings
+        final String json = Files.toString(file, Charsets.UTF_8);
+        assertTrue(json.contains("\"phases\": {\"parse\": 0.00, \"model\": 3.00,"));
+        assertTrue(json.contains("{\"name\": \"com.example.A\", \"totalMillis\": 11.00, \"modelMillis\": 3.00, "
+                + "\"jpa\": {\"renderMillis\": 10.00, \"writeMillis\": 1.00, \"bytes\": 100}}"));
+        assertFalse(json.contains("\"fields\""));
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
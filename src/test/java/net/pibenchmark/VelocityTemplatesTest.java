@@ -0,0 +1,28 @@
+package net.pibenchmark;
+
+import org.apache.velocity.Template;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VelocityTemplatesTest {
+
+    @Test
+    public void testTemplateIsParsedOnce() {
+
+        // when: the same template is requested twice, e.g. by two modules of a reactor build
+        final Template first = VelocityTemplates.get("JpaEntityTemplate.vm");
+        final Template second = VelocityTemplates.get("JpaEntityTemplate.vm");
+
+        // then: the same parsed template is returned
+        assertNotNull(first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testAllTemplatesCanBeParsed() {
+        for (String name : SoapToJpaMojo.TEMPLATES) {
+            assertNotNull(name, VelocityTemplates.get(name));
+        }
+    }
+}